@@ -0,0 +1,97 @@
+package technology.tabula;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.detectors.NurminenDetectionAlgorithm;
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+/**
+ * Per-page cost of each stage of table extraction, measured on its own: every stage is fed the output of the
+ * previous ones, computed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionStagesBenchmark {
+
+    @Param({
+            "argentina_diputados_voting_record.pdf",
+            "eu-002.pdf",
+            "twotables.pdf",
+            "us-017.pdf"
+    })
+    public String pdf;
+
+    private PDDocument document;
+    private TextExtractor extractor;
+    private PageArea page;
+    private List<TextChunk> textChunks;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        document = PDDocument.load(new File("src/test/resources/technology/tabula", pdf));
+        extractor = new TextExtractor(document);
+        page = extractor.extractPage(1);
+        textChunks = TextElement.mergeWords(page.getText(), page.getVerticalRulings());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        extractor.close();
+    }
+
+    @Benchmark
+    public PageArea extractPage() throws IOException {
+        return extractor.extractPage(1);
+    }
+
+    @Benchmark
+    public List<TextChunk> mergeWords() {
+        return TextElement.mergeWords(page.getText(), page.getVerticalRulings());
+    }
+
+    @Benchmark
+    public List<Line> groupByLines() {
+        // groupByLines consumes its argument
+        return TextChunk.groupByLines(new ArrayList<>(textChunks));
+    }
+
+    @Benchmark
+    public List<Table> basicExtract() {
+        return new BasicExtractionAlgorithm().extract(page);
+    }
+
+    @Benchmark
+    public List<Table> spreadsheetExtract() {
+        return new SpreadsheetExtractionAlgorithm().extract(page);
+    }
+
+    @Benchmark
+    public List<Rectangle> detect() {
+        return new NurminenDetectionAlgorithm().detect(page);
+    }
+
+}
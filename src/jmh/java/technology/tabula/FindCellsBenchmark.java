@@ -0,0 +1,64 @@
+package technology.tabula;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+/**
+ * Cell discovery on a single square lattice of {@code size} by {@code size} cells, intersections included,
+ * and placing the cells found in table rows and columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindCellsBenchmark {
+
+    @Param({"10", "30", "100"})
+    public int size;
+
+    private List<Ruling> horizontals;
+    private List<Ruling> verticals;
+    private List<Cell> cells;
+
+    @Setup(Level.Trial)
+    public void layOutRulings() {
+        horizontals = new ArrayList<>();
+        verticals = new ArrayList<>();
+        for (int i = 0; i <= size; i++) {
+            horizontals.add(new Ruling(new Point2D.Float(0, i * 10f), new Point2D.Float(size * 50f, i * 10f)));
+            verticals.add(new Ruling(new Point2D.Float(i * 50f, 0), new Point2D.Float(i * 50f, size * 10f)));
+        }
+        cells = SpreadsheetExtractionAlgorithm.findCells(horizontals, verticals);
+    }
+
+    @Benchmark
+    public List<Cell> findCells() {
+        return SpreadsheetExtractionAlgorithm.findCells(horizontals, verticals);
+    }
+
+    @Benchmark
+    public Table placeCells() {
+        Rectangle area = new Rectangle(0, 0, size * 50f, size * 10f);
+        return new TableWithRulingLines(area, new ArrayList<>(cells), horizontals, verticals, new SpreadsheetExtractionAlgorithm());
+    }
+
+}
@@ -0,0 +1,86 @@
+package technology.tabula;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rounding page coordinates to hundredths: the former {@link BigDecimal} based {@code Utils.round(d, 2)}
+ * against {@link FixedPoint}, for plain rounding and for the rounded comparisons done while sorting points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedPointBenchmark {
+
+    private static final int COORDINATES = 1024;
+
+    private final double[] coordinates = new double[COORDINATES];
+
+    @Setup(Level.Trial)
+    public void generateCoordinates() {
+        Random random = new Random(42);
+        for (int i = 0; i < COORDINATES; i++) {
+            // text and ruling positions are floats on a letter-sized page
+            coordinates[i] = (float) (random.nextDouble() * 792);
+        }
+    }
+
+    @Benchmark
+    public float bigDecimalRound() {
+        float sum = 0;
+        for (double d : coordinates) {
+            sum += bigDecimalRound(d);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float fixedPointRound() {
+        float sum = 0;
+        for (double d : coordinates) {
+            sum += FixedPoint.round(d);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int bigDecimalCompare() {
+        int sum = 0;
+        for (int i = 1; i < COORDINATES; i++) {
+            sum += Float.compare(bigDecimalRound(coordinates[i - 1]), bigDecimalRound(coordinates[i]));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int fixedPointCompare() {
+        int sum = 0;
+        for (int i = 1; i < COORDINATES; i++) {
+            sum += FixedPoint.compare(coordinates[i - 1], coordinates[i]);
+        }
+        return sum;
+    }
+
+    private static float bigDecimalRound(double d) {
+        BigDecimal bd = new BigDecimal(Double.toString(d));
+        bd = bd.setScale(2, BigDecimal.ROUND_HALF_UP);
+        return bd.floatValue();
+    }
+
+}
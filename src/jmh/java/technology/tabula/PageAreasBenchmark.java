@@ -0,0 +1,81 @@
+package technology.tabula;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+/**
+ * Extracting {@code areas} areas of one page, horizontal bands of it, the way the command line does with
+ * several {@code -a} options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageAreasBenchmark {
+
+    @Param({"4", "16"})
+    public int areas;
+
+    private TextExtractor extractor;
+    private PageArea page;
+    private List<Rectangle> bands;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        PDDocument document = PDDocument.load(new File("src/test/resources/technology/tabula", "argentina_diputados_voting_record.pdf"));
+        extractor = new TextExtractor(document);
+        page = extractor.extractPage(1);
+        bands = new ArrayList<>();
+        float height = (float) page.getHeight() / areas;
+        for (int i = 0; i < areas; i++) {
+            bands.add(new Rectangle(page.getTop() + i * height, page.getLeft(), (float) page.getWidth(), height));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        extractor.close();
+    }
+
+    @Benchmark
+    public List<Table> basicExtract() {
+        List<Table> tables = new ArrayList<>();
+        for (Rectangle band : bands) {
+            tables.addAll(new BasicExtractionAlgorithm().extract(page.getArea(band)));
+        }
+        return tables;
+    }
+
+    @Benchmark
+    public List<Table> spreadsheetExtract() {
+        List<Table> tables = new ArrayList<>();
+        for (Rectangle band : bands) {
+            tables.addAll(new SpreadsheetExtractionAlgorithm().extract(page.getArea(band)));
+        }
+        return tables;
+    }
+
+}
@@ -0,0 +1,111 @@
+package technology.tabula;
+
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-page cost of turning a PDF page into a {@link PageArea}.
+ * <p>
+ * {@link #extractPage()} is the single pass done by {@link TextExtractor}. Before rulings and text were
+ * collected together, a page cost one {@link #textStripperPass()} plus one {@link #graphicsStreamPass()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageIngestionBenchmark {
+
+    @Param({
+            "argentina_diputados_voting_record.pdf",
+            "eu-002.pdf",
+            "frx_2012_disclosure.pdf",
+            "twotables.pdf",
+            "us-017.pdf"
+    })
+    public String pdf;
+
+    private PDDocument document;
+    private TextExtractor extractor;
+    private PDPage page;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        document = PDDocument.load(new File("src/test/resources/technology/tabula", pdf));
+        extractor = new TextExtractor(document);
+        page = document.getPage(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        extractor.close();
+    }
+
+    @Benchmark
+    public PageArea extractPage() throws IOException {
+        return extractor.extractPage(1);
+    }
+
+    @Benchmark
+    public TextStripper textStripperPass() throws IOException {
+        TextStripper textStripper = new TextStripper(document, 1);
+        textStripper.process();
+        return textStripper;
+    }
+
+    @Benchmark
+    public NoOpGraphicsStreamEngine graphicsStreamPass() throws IOException {
+        NoOpGraphicsStreamEngine engine = new NoOpGraphicsStreamEngine(page);
+        engine.processPage(page);
+        return engine;
+    }
+
+    /**
+     * Interprets the content stream like the former ruling extractor did, without collecting anything.
+     */
+    static class NoOpGraphicsStreamEngine extends PDFGraphicsStreamEngine {
+
+        private final Point2D.Float currentPoint = new Point2D.Float();
+
+        NoOpGraphicsStreamEngine(PDPage page) {
+            super(page);
+        }
+
+        @Override public void appendRectangle(Point2D p0, Point2D p1, Point2D p2, Point2D p3) {}
+        @Override public void drawImage(PDImage pdImage) {}
+        @Override public void clip(int windingRule) {}
+        @Override public void moveTo(float x, float y) { currentPoint.setLocation(x, y); }
+        @Override public void lineTo(float x, float y) { currentPoint.setLocation(x, y); }
+        @Override public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) { currentPoint.setLocation(x3, y3); }
+        @Override public Point2D getCurrentPoint() { return currentPoint; }
+        @Override public void closePath() {}
+        @Override public void endPath() {}
+        @Override public void strokePath() {}
+        @Override public void fillPath(int windingRule) {}
+        @Override public void fillAndStrokePath(int windingRule) {}
+        @Override public void shadingFill(COSName shadingName) {}
+    }
+
+}
@@ -0,0 +1,71 @@
+package technology.tabula;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of {@link Ruling#findIntersections(List, List)} with the number of rulings.
+ * <p>
+ * {@code spreadsheets} stacks lattices of 60 rows by 40 columns down a (very long) page, {@code small} stacks
+ * tables of 4 rows by 4 columns. In both, a vertical only crosses the horizontals of its own table, so the output
+ * grows linearly with the number of rulings while a scan over all active horizontals does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulingIntersectionsBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int rulings;
+
+    @Param({"spreadsheets", "small"})
+    public String layout;
+
+    private List<Ruling> horizontals;
+    private List<Ruling> verticals;
+
+    @Setup(Level.Trial)
+    public void layOutRulings() {
+        horizontals = new ArrayList<>();
+        verticals = new ArrayList<>();
+
+        int rows = "spreadsheets".equals(layout) ? 60 : 4;
+        int columns = "spreadsheets".equals(layout) ? 40 : 4;
+        float top = 0;
+        while (horizontals.size() + verticals.size() < rulings) {
+            float bottom = top + rows * 10f;
+            for (int i = 0; i <= rows && horizontals.size() + verticals.size() < rulings; i++) {
+                horizontals.add(new Ruling(new Point2D.Float(0, top + i * 10f), new Point2D.Float(columns * 50f, top + i * 10f)));
+            }
+            for (int i = 0; i <= columns && horizontals.size() + verticals.size() < rulings; i++) {
+                verticals.add(new Ruling(new Point2D.Float(i * 50f, top), new Point2D.Float(i * 50f, bottom)));
+            }
+            top = bottom + 20f;
+        }
+    }
+
+    @Benchmark
+    public Map<Point2D, Ruling[]> findIntersections() {
+        return Ruling.findIntersections(horizontals, verticals);
+    }
+
+}
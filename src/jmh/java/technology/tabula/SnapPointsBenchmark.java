@@ -0,0 +1,64 @@
+package technology.tabula;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Snapping the endpoints of {@code fragments} ruling fragments, laid out as the dotted borders of a grid, each
+ * dot a little off its line. Snapping moves the rulings, so every invocation snaps fresh copies of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapPointsBenchmark {
+
+    @Param({"1000", "20000"})
+    public int fragments;
+
+    private List<Ruling> rulings;
+
+    @Setup(Level.Trial)
+    public void layOutDots() {
+        Random random = new Random(1);
+        rulings = new ArrayList<>();
+        for (int i = 0; i < fragments; i++) {
+            float line = (i % 40) * 15f + random.nextFloat();
+            float along = (i / 40) * 2f;
+            if (i % 2 == 0) {
+                rulings.add(new Ruling(new Point2D.Float(along, line), new Point2D.Float(along + 1f, line)));
+            } else {
+                rulings.add(new Ruling(new Point2D.Float(line, along), new Point2D.Float(line, along + 1f)));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Ruling> snapPoints() {
+        List<Ruling> copies = new ArrayList<>(rulings.size());
+        for (Ruling r : rulings) {
+            copies.add(new Ruling(r.getP1(), r.getP2()));
+        }
+        Utils.snapPoints(copies, 1f, 1f);
+        return copies;
+    }
+
+}
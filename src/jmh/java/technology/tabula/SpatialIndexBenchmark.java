@@ -0,0 +1,93 @@
+package technology.tabula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Text lookup for every cell of a {@code size} by {@code size} lattice with a few glyphs per cell, the way
+ * lattice extraction asks for the text of its cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialIndexBenchmark {
+
+    private static final int GLYPHS_PER_CELL = 6;
+
+    @Param({"10", "45"})
+    public int size;
+
+    private List<TextElement> glyphs;
+    private List<Rectangle> cells;
+    private RectangleSpatialIndex<TextElement> index;
+
+    @Setup(Level.Trial)
+    public void layOutCells() {
+        glyphs = new ArrayList<>();
+        cells = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                cells.add(new Rectangle(row * 12f, column * 50f, 50f, 12f));
+                for (int i = 0; i < GLYPHS_PER_CELL; i++) {
+                    glyphs.add(new TextElement(row * 12f + 2f, column * 50f + 2f + i * 5f, 4.5f, 8f, null, 8f, "x", 2f, 0f));
+                }
+            }
+        }
+        index = newIndex();
+        index.contains(cells.get(0));
+    }
+
+    private RectangleSpatialIndex<TextElement> newIndex() {
+        RectangleSpatialIndex<TextElement> index = new RectangleSpatialIndex<>();
+        for (TextElement glyph : glyphs) {
+            index.add(glyph);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public int buildAndQueryEachCell() {
+        RectangleSpatialIndex<TextElement> index = newIndex();
+        int found = 0;
+        for (Rectangle cell : cells) {
+            found += index.contains(cell).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int queryEachCell() {
+        int found = 0;
+        for (Rectangle cell : cells) {
+            found += index.contains(cell).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int queryAllCellsAtOnce() {
+        int found = 0;
+        for (List<TextElement> cellGlyphs : index.contains(cells)) {
+            found += cellGlyphs.size();
+        }
+        return found;
+    }
+
+}
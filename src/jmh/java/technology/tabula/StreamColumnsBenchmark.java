@@ -0,0 +1,62 @@
+package technology.tabula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+
+/**
+ * Column discovery of stream mode on 200 lines of a table with {@code columns} columns, whose words start
+ * and end a little differently on every line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamColumnsBenchmark {
+
+    private static final int LINES = 200;
+
+    @Param({"10", "30"})
+    public int columns;
+
+    private List<Line> lines;
+
+    @Setup(Level.Trial)
+    public void layOutLines() {
+        Random random = new Random(1);
+        lines = new ArrayList<>();
+        for (int l = 0; l < LINES; l++) {
+            Line line = new Line();
+            for (int c = 0; c < columns; c++) {
+                float left = c * 40f + random.nextInt(6);
+                float width = 10f + random.nextInt(20);
+                line.addTextChunk(new TextChunk(new TextElement(l * 10f, left, width, 8f, null, 8f, "x", 2f, 0f)));
+            }
+            lines.add(line);
+        }
+    }
+
+    @Benchmark
+    public List<Float> columnPositions() {
+        return BasicExtractionAlgorithm.columnPositions(lines);
+    }
+
+}
@@ -0,0 +1,69 @@
+package technology.tabula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+
+/**
+ * Filling a table of {@code rows} rows and 8 columns, every third cell left empty, and reading it back row by
+ * row the way the writers do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableStorageBenchmark {
+
+    private static final int COLUMNS = 8;
+
+    @Param({"1000", "50000"})
+    public int rows;
+
+    private List<TextChunk> chunks;
+
+    @Setup(Level.Trial)
+    public void createChunks() {
+        chunks = new ArrayList<>();
+        for (int i = 0; i < rows * COLUMNS; i++) {
+            chunks.add(new TextChunk((i / COLUMNS) * 10f, (i % COLUMNS) * 50f, 40f, 8f));
+        }
+    }
+
+    @Benchmark
+    public int fillAndReadRows() {
+        Table table = new Table(new BasicExtractionAlgorithm());
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i % 3 != 0) {
+                table.add(chunks.get(i), i / COLUMNS, i % COLUMNS);
+            }
+        }
+
+        int found = 0;
+        for (List<RectangularTextContainer> row : table.getRows()) {
+            for (RectangularTextContainer cell : row) {
+                if (cell != TextChunk.EMPTY) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+}
@@ -0,0 +1,88 @@
+package technology.tabula.writers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.Cell;
+import technology.tabula.PageArea;
+import technology.tabula.RectangularTextContainer;
+import technology.tabula.Table;
+import technology.tabula.TextChunk;
+import technology.tabula.UtilsForTesting;
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.json.RectangularTextContainerSerializer;
+import technology.tabula.json.TableSerializer;
+
+/**
+ * Throughput of {@link JSONWriter} against the {@link TableSerializer}/{@link RectangularTextContainerSerializer}
+ * path it replaced, which built a {@link Gson} per call and a {@link JsonArray} tree of every table before
+ * writing. Allocation per operation is reported by the gc profiler ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONWriterBenchmark {
+
+    @Param({
+            "schools.pdf",
+            "twotables.pdf",
+            "us-017.pdf"
+    })
+    public String pdf;
+
+    private List<Table> tables;
+    private final StringBuilder out = new StringBuilder();
+    private final JSONWriter writer = new JSONWriter();
+
+    @Setup(Level.Trial)
+    public void extractTables() throws IOException {
+        PageArea page = UtilsForTesting.getPage("src/test/resources/technology/tabula/" + pdf, 1);
+        SpreadsheetExtractionAlgorithm lattice = new SpreadsheetExtractionAlgorithm();
+        tables = lattice.isTabular(page) ? lattice.extract(page) : new BasicExtractionAlgorithm().extract(page);
+    }
+
+    @Benchmark
+    public int serializerTree() {
+        out.setLength(0);
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Table.class, TableSerializer.INSTANCE)
+                .registerTypeAdapter(RectangularTextContainer.class, RectangularTextContainerSerializer.INSTANCE)
+                .registerTypeAdapter(Cell.class, RectangularTextContainerSerializer.INSTANCE)
+                .registerTypeAdapter(TextChunk.class, RectangularTextContainerSerializer.INSTANCE)
+                .create();
+        JsonArray jsonElements = new JsonArray();
+        for (Table table : tables)
+            jsonElements.add(gson.toJsonTree(table, Table.class));
+        out.append(gson.toJson(jsonElements));
+        return out.length();
+    }
+
+    @Benchmark
+    public int streamingWriter() throws IOException {
+        out.setLength(0);
+        writer.write(out, tables);
+        return out.length();
+    }
+
+}
@@ -0,0 +1,77 @@
+package technology.tabula.writers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import technology.tabula.PageArea;
+import technology.tabula.Table;
+import technology.tabula.UtilsForTesting;
+import technology.tabula.extractors.BasicExtractionAlgorithm;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+/**
+ * Cost of writing the tables of a page with each {@link Writer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WritersBenchmark {
+
+    @Param({
+            "argentina_diputados_voting_record.pdf",
+            "twotables.pdf",
+            "us-017.pdf"
+    })
+    public String pdf;
+
+    @Param({"CSV", "TSV", "JSON"})
+    public String format;
+
+    private List<Table> tables;
+    private Writer writer;
+    private final StringBuilder out = new StringBuilder();
+
+    @Setup(Level.Trial)
+    public void extractTables() throws IOException {
+        PageArea page = UtilsForTesting.getPage("src/test/resources/technology/tabula/" + pdf, 1);
+        SpreadsheetExtractionAlgorithm lattice = new SpreadsheetExtractionAlgorithm();
+        tables = lattice.isTabular(page) ? lattice.extract(page) : new BasicExtractionAlgorithm().extract(page);
+        page.getPDDoc().close();
+
+        switch (format) {
+            case "CSV":
+                writer = new CSVWriter();
+                break;
+            case "TSV":
+                writer = new TSVWriter();
+                break;
+            default:
+                writer = new JSONWriter();
+        }
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.setLength(0);
+        writer.write(out, tables);
+        return out.length();
+    }
+
+}
@@ -14,16 +14,27 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 
 import technology.tabula.detectors.DetectionAlgorithm;
 import technology.tabula.detectors.NurminenDetectionAlgorithm;
 import technology.tabula.extractors.BasicExtractionAlgorithm;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.metrics.Metrics;
 import technology.tabula.writers.CSVWriter;
 import technology.tabula.writers.JSONWriter;
 import technology.tabula.writers.TSVWriter;
+import technology.tabula.writers.TableStream;
 import technology.tabula.writers.Writer;
 
 
@@ -44,6 +55,9 @@ public class CommandLineApp {
     private OutputFormat outputFormat;
     private String password;
     private TableExtractor tableExtractor;
+    private int threads;
+    private int samplePages;
+    private boolean silent;
 
     public CommandLineApp(Appendable defaultOutput, CommandLine line) throws ParseException {
         this.defaultOutput = defaultOutput;
@@ -51,12 +65,25 @@ public class CommandLineApp {
         this.pages = CommandLineApp.whichPages(line);
         this.outputFormat = CommandLineApp.whichOutputFormat(line);
         this.tableExtractor = CommandLineApp.createExtractor(line);
+        this.threads = CommandLineApp.whichThreads(line);
+        this.samplePages = CommandLineApp.whichSamplePages(line);
+        // the pools of --threads and batch mode bound how many threads extraction uses
+        setParallelWithinPages(!line.hasOption("threads") && !line.hasOption('b'));
+        this.silent = line.hasOption('i');
 
         if (line.hasOption('s')) {
             this.password = line.getOptionValue('s');
         }
     }
 
+    /**
+     * Whether a page may be extracted on more than the thread it was given, e.g. by merging the text of large
+     * tables on the common {@link ForkJoinPool}. Off when pages are extracted on a bounded pool.
+     */
+    void setParallelWithinPages(boolean parallel) {
+        tableExtractor.setParallel(parallel);
+    }
+
     public static void main(String[] args) {
         CommandLineParser parser = new DefaultParser();
         try {
@@ -73,6 +100,11 @@ public class CommandLineApp {
                 System.exit(0);
             }
 
+            if (line.hasOption("server")) {
+                ExtractionServer.run(line);
+                System.exit(0);
+            }
+
             new CommandLineApp(System.out, line).extractTables(line);
         } catch (ParseException exp) {
             System.err.println("Error: " + exp.getMessage());
@@ -113,15 +145,47 @@ public class CommandLineApp {
             }
         });
 
+        // files are spread over the pool, the pages of each file are extracted sequentially
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BatchStatistics statistics = new BatchStatistics();
+
         for (File pdfFile : pdfs) {
-            File outputFile = new File(getOutputFilename(pdfFile));
-            extractFileInto(pdfFile, outputFile);
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    int pageCount = extractFileInto(pdfFile, new File(getOutputFilename(pdfFile)), 1);
+                    statistics.fileExtracted(pageCount, System.nanoTime() - start);
+                } catch (ParseException | RuntimeException e) {
+                    statistics.fileFailed(System.nanoTime() - start);
+                    printError(pdfFile + ": " + e.getMessage());
+                } catch (Error e) {
+                    // still accounted for, so the summary covers every file, then left to the pool
+                    statistics.fileFailed(System.nanoTime() - start);
+                    printError(pdfFile + ": " + e);
+                    throw e;
+                }
+            });
+        }
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new ParseException("Batch extraction interrupted");
+        }
+
+        printError(statistics.summary());
+        if (statistics.getFailures() > 0) {
+            throw new ParseException(String.format("%d of %d files could not be extracted",
+                    statistics.getFailures(), statistics.getFiles()));
         }
     }
 
     public void extractFileTables(CommandLine line, File pdfFile) throws ParseException {
         if (!line.hasOption('o')) {
-            extractFile(pdfFile, this.defaultOutput);
+            extractFile(pdfFile, this.defaultOutput, threads);
             return;
         }
 
@@ -130,13 +194,17 @@ public class CommandLineApp {
     }
 
     public void extractFileInto(File pdfFile, File outputFile) throws ParseException {
+        extractFileInto(pdfFile, outputFile, threads);
+    }
+
+    private int extractFileInto(File pdfFile, File outputFile, int pageThreads) throws ParseException {
         BufferedWriter bufferedWriter = null;
         try {
             FileWriter fileWriter = new FileWriter(outputFile.getAbsoluteFile());
             bufferedWriter = new BufferedWriter(fileWriter);
 
             outputFile.createNewFile();
-            extractFile(pdfFile, bufferedWriter);
+            return extractFile(pdfFile, bufferedWriter, pageThreads);
         } catch (IOException e) {
             throw new ParseException("Cannot create file " + outputFile);
         } finally {
@@ -150,37 +218,53 @@ public class CommandLineApp {
         }
     }
 
-    private void extractFile(File pdfFile, Appendable outFile) throws ParseException {
-        PDDocument pdfDocument = null;
-        try {
-            pdfDocument = this.password == null ? PDDocument.load(pdfFile) : PDDocument.load(pdfFile, this.password);
-            PageIterator pageIterator = getPageIterator(pdfDocument);
-            List<Table> tables = new ArrayList<>();
+    private int extractFile(File pdfFile, Appendable outFile, int pageThreads) throws ParseException {
+        return extractDocument(pdfFile.getPath(), () -> loadDocument(pdfFile), outFile, pageThreads);
+    }
 
-            while (pageIterator.hasNext()) {
-                PageArea pageArea = pageIterator.next();
+    /**
+     * Extracts a document that was received in memory, e.g. by the {@link ExtractionServer}.
+     *
+     * @return the number of pages extracted
+     */
+    int extractDocument(byte[] pdf, Appendable out) throws ParseException {
+        return extractDocument("document", () -> loadDocument(pdf), out, threads);
+    }
 
-                if (tableExtractor.verticalRulingPositions != null) {
-                    for (Float verticalRulingPosition : tableExtractor.verticalRulingPositions) {
-                        pageArea.addRuling(new Ruling(0, verticalRulingPosition, 0.0f, (float) pageArea.getHeight()));
-                    }
+    private int extractDocument(String name, DocumentLoader loader, Appendable outFile, int pageThreads) throws ParseException {
+        if (pageThreads > 1) {
+            return extractDocumentInParallel(name, loader, outFile, pageThreads);
+        }
+
+        PDDocument pdfDocument = null;
+        try {
+            pdfDocument = loader.load();
+            TextExtractor extractor = new TextExtractor(pdfDocument);
+            List<Integer> pageNumbers = pages == null ? Utils.range(1, pdfDocument.getNumberOfPages() + 1) : pages;
+
+            ExtractionMethod method = tableExtractor.method;
+            if (samplesExtractionMethod(pageNumbers)) {
+                List<List<ExtractionMethod>> sampledMethods = new ArrayList<>();
+                PageIterator sampledPages = extractor.extract(samplePages(pageNumbers, samplePages));
+                while (sampledPages.hasNext()) {
+                    sampledMethods.add(decideAreaMethods(sampledPages.next()));
                 }
+                method = documentMethod(name, sampledMethods.iterator());
+            }
 
-                if (pageAreas != null) {
-                    for (Pair<Integer, Rectangle> areaPair : pageAreas) {
-                        Rectangle area = areaPair.getRight();
-                        if (areaPair.getLeft() == RELATIVE_AREA_CALCULATION_MODE) {
-                            area = new Rectangle((float) (area.getTop() / 100 * pageArea.getHeight()),
-                                                 (float) (area.getLeft() / 100 * pageArea.getWidth()), (float) (area.getWidth() / 100 * pageArea.getWidth()),
-                                                 (float) (area.getHeight() / 100 * pageArea.getHeight()));
-                        }
-                        tables.addAll(tableExtractor.extractTables(pageArea.getArea(area)));
-                    }
-                } else {
-                    tables.addAll(tableExtractor.extractTables(pageArea));
+            PageIterator pageIterator = extractor.extract(pageNumbers);
+            int pageCount = 0;
+
+            // tables are written as soon as their page is done, no page is kept past its iteration
+            try (TableStream tableStream = createWriter().open(outFile)) {
+                while (pageIterator.hasNext()) {
+                    tableStream.write(extractPageTables(pageIterator.next(), method));
+                    pageCount++;
                 }
+                // a page that fails leaves the output unfinished
+                tableStream.finish();
             }
-            writeTables(tables, outFile);
+            return pageCount;
         } catch (IOException e) {
             throw new ParseException(e.getMessage());
         } finally {
@@ -194,11 +278,123 @@ public class CommandLineApp {
         }
     }
 
-    private PageIterator getPageIterator(PDDocument pdfDocument) throws IOException {
-        TextExtractor extractor = new TextExtractor(pdfDocument);
-        return (pages == null) ?
-                extractor.extract() :
-                extractor.extract(pages);
+    private int extractDocumentInParallel(String name, DocumentLoader loader, Appendable outFile, int pageThreads) throws ParseException {
+        // every worker loads its own handle on the document, pages are processed where they were extracted
+        try (ParallelTextExtractor extractor = new ParallelTextExtractor(loader::load, pageThreads)) {
+            List<Integer> pageNumbers = pages == null ? Utils.range(1, extractor.getNumberOfPages() + 1) : pages;
+
+            // the sampled pages are decided on the workers too
+            ExtractionMethod method = samplesExtractionMethod(pageNumbers) ?
+                    documentMethod(name, extractor.extract(samplePages(pageNumbers, samplePages), this::decideAreaMethods)) :
+                    tableExtractor.method;
+
+            Iterator<List<Table>> pageTables = extractor.extract(pageNumbers, page -> extractPageTables(page, method));
+            int pageCount = 0;
+
+            try (TableStream tableStream = createWriter().open(outFile)) {
+                while (pageTables.hasNext()) {
+                    tableStream.write(pageTables.next());
+                    pageCount++;
+                }
+                tableStream.finish();
+            }
+            return pageCount;
+        } catch (IOException | UncheckedIOException e) {
+            throw new ParseException(e.getMessage());
+        }
+    }
+
+    private void printError(String message) {
+        if (!silent) {
+            System.err.println(message);
+        }
+    }
+
+    private PDDocument loadDocument(File pdfFile) throws IOException {
+        return this.password == null ? PDDocument.load(pdfFile) : PDDocument.load(pdfFile, this.password);
+    }
+
+    private PDDocument loadDocument(byte[] pdf) throws IOException {
+        return this.password == null ? PDDocument.load(pdf) : PDDocument.load(pdf, this.password);
+    }
+
+    private List<Table> extractPageTables(PageArea page, ExtractionMethod method) {
+        List<Table> tables = new ArrayList<>();
+        for (PageArea area : areasToExtract(page)) {
+            tables.addAll(tableExtractor.extractTables(area, method));
+        }
+        return tables;
+    }
+
+    // the page, or each of the areas given, ready to be extracted
+    private List<PageArea> areasToExtract(PageArea page) {
+        if (tableExtractor.verticalRulingPositions != null) {
+            for (Float verticalRulingPosition : tableExtractor.verticalRulingPositions) {
+                page.addRuling(new Ruling(0, verticalRulingPosition, 0.0f, (float) page.getHeight()));
+            }
+        }
+        // from here on the page is only read, its rulings cleaned up once for all areas and extractors
+        PageArea pageArea = page.snapshot();
+
+        if (pageAreas == null) {
+            return Collections.singletonList(pageArea);
+        }
+
+        List<PageArea> areas = new ArrayList<>(pageAreas.size());
+        for (Pair<Integer, Rectangle> areaPair : pageAreas) {
+            Rectangle area = areaPair.getRight();
+            if (areaPair.getLeft() == RELATIVE_AREA_CALCULATION_MODE) {
+                area = new Rectangle((float) (area.getTop() / 100 * pageArea.getHeight()),
+                                     (float) (area.getLeft() / 100 * pageArea.getWidth()), (float) (area.getWidth() / 100 * pageArea.getWidth()),
+                                     (float) (area.getHeight() / 100 * pageArea.getHeight()));
+            }
+            areas.add(pageArea.getArea(area));
+        }
+        return areas;
+    }
+
+    // Deciding the extraction method once per document
+
+    private boolean samplesExtractionMethod(List<Integer> pageNumbers) {
+        // sampling every page would only decide each of them twice
+        return samplePages > 0 && tableExtractor.method == ExtractionMethod.DECIDE && samplePages < pageNumbers.size();
+    }
+
+    /**
+     * Picks {@code count} of {@code pageNumbers}, spread evenly over them: each is in the middle of an equal
+     * share of the pages.
+     */
+    static List<Integer> samplePages(List<Integer> pageNumbers, int count) {
+        List<Integer> sampled = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sampled.add(pageNumbers.get((int) ((2L * i + 1) * pageNumbers.size() / (2L * count))));
+        }
+        return sampled;
+    }
+
+    // the method each area of the page would be extracted with, leaving out those without text
+    private List<ExtractionMethod> decideAreaMethods(PageArea page) {
+        List<ExtractionMethod> methods = new ArrayList<>();
+        for (PageArea area : areasToExtract(page)) {
+            if (!area.getText().isEmpty()) {
+                methods.add(tableExtractor.decideMethod(area));
+            }
+        }
+        return methods;
+    }
+
+    // the sampled method if every sampled area agreed on it, otherwise every page decides for itself
+    private ExtractionMethod documentMethod(String name, Iterator<List<ExtractionMethod>> sampledMethods) {
+        MethodSample sample = new MethodSample();
+        while (sampledMethods.hasNext()) {
+            sample.addAll(sampledMethods.next());
+        }
+        if (sample.getConfidence() < 1) {
+            printError(name + ": " + sample.summary() + ", deciding page by page");
+            return ExtractionMethod.DECIDE;
+        }
+        printError(name + ": " + sample.summary());
+        return sample.getMethod();
     }
 
     // CommandLine parsing methods
@@ -247,6 +443,38 @@ public class CommandLineApp {
         return Utils.parsePagesOption(pagesOption);
     }
 
+    private static int whichSamplePages(CommandLine line) throws ParseException {
+        if (!line.hasOption("sample-pages")) {
+            return 0;
+        }
+
+        try {
+            int samplePages = Integer.parseInt(line.getOptionValue("sample-pages"));
+            if (samplePages >= 1) {
+                return samplePages;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new ParseException("sample-pages must be a positive integer");
+    }
+
+    static int whichThreads(CommandLine line) throws ParseException {
+        if (!line.hasOption("threads")) {
+            return 1;
+        }
+
+        try {
+            int threads = Integer.parseInt(line.getOptionValue("threads"));
+            if (threads >= 1) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new ParseException("threads must be a positive integer");
+    }
+
     private static ExtractionMethod whichExtractionMethod(CommandLine line) {
         // -r/--spreadsheet [deprecated; use -l] or -l/--lattice
         if (line.hasOption('r') || line.hasOption('l')) {
@@ -358,6 +586,31 @@ public class CommandLineApp {
                 .hasArg()
                 .argName("PAGES")
                 .build());
+        o.addOption(Option.builder()
+                .longOpt("threads")
+                .desc("Number of pages to extract concurrently. Each thread opens its own handle on the document. "
+                        + "With -b/--batch, number of files to extract concurrently instead. "
+                        + "With --server, number of requests to serve concurrently, by default one per processor. "
+                        + "When given, and with -b/--batch or --server, every page is extracted on a single thread. Default: 1")
+                .hasArg()
+                .argName("THREADS")
+                .build());
+        o.addOption(Option.builder()
+                .longOpt("sample-pages")
+                .desc("Unless lattice or stream mode is forced, decide between them once per document from N pages spread over the pages to extract, "
+                        + "and extract every page the way they agree on. If they don't, every page is decided on its own. "
+                        + "The decision and its confidence are printed to stderr. Default: every page is decided on its own")
+                .hasArg()
+                .argName("N")
+                .build());
+        o.addOption(Option.builder()
+                .longOpt("server")
+                .desc("Keep running and serve extraction requests over HTTP on [HOST:]PORT, by default on the loopback interface. "
+                        + "POST a PDF to /extract with the other options as query parameters, e.g. /extract?pages=all&lattice&format=JSON. "
+                        + "GET /health returns statistics.")
+                .hasArg()
+                .argName("[HOST:]PORT")
+                .build());
 
         return o;
     }
@@ -365,7 +618,8 @@ public class CommandLineApp {
     private static class TableExtractor {
         private boolean guess = false;
         private boolean useLineReturns = false;
-        private BasicExtractionAlgorithm basicExtractor = new BasicExtractionAlgorithm();
+        // pages may be extracted on several threads: BasicExtractionAlgorithm keeps the
+        // vertical rulings it was given, so a new one is created for every page
         private SpreadsheetExtractionAlgorithm spreadsheetExtractor = new SpreadsheetExtractionAlgorithm();
 
         private boolean verticalRulingPositionsRelative = false;
@@ -397,22 +651,81 @@ public class CommandLineApp {
         }
 
         public List<Table> extractTables(PageArea pageArea) {
-            ExtractionMethod effectiveMethod = this.method;
-            if (effectiveMethod == ExtractionMethod.DECIDE) {
-                effectiveMethod = spreadsheetExtractor.isTabular(pageArea) ?
-                        ExtractionMethod.SPREADSHEET :
-                        ExtractionMethod.BASIC;
-            }
-            switch (effectiveMethod) {
+            return extractTables(pageArea, method);
+        }
+
+        public List<Table> extractTables(PageArea pageArea, ExtractionMethod method) {
+            switch (method) {
                 case BASIC:
                     return extractTablesBasic(pageArea);
                 case SPREADSHEET:
                     return extractTablesSpreadsheet(pageArea);
+                case DECIDE:
+                    return extractTablesDecide(pageArea);
                 default:
                     return new ArrayList<>();
             }
         }
 
+        /**
+         * Extracts with the method {@link #decide(PageArea)} picks, keeping the stream extraction it made of the
+         * page if stream wins.
+         */
+        private List<Table> extractTablesDecide(PageArea pageArea) {
+            Decision decision = decide(pageArea);
+            if (decision.tabular) {
+                return extractTablesSpreadsheet(pageArea);
+            }
+            if (decision.pageStreamTables != null && !guess && verticalRulingPositions == null) {
+                // trial extractions aren't counted, what is kept of them is
+                Metrics.count(Metrics.Counter.TABLES, pageArea.getPageNumber(), decision.pageStreamTables.size());
+                return decision.pageStreamTables;
+            }
+            return extractTablesBasic(pageArea);
+        }
+
+        /**
+         * The method {@link #extractTablesDecide(PageArea)} extracts {@code pageArea} with, either
+         * {@link ExtractionMethod#SPREADSHEET} or {@link ExtractionMethod#BASIC}.
+         */
+        public ExtractionMethod decideMethod(PageArea pageArea) {
+            return decide(pageArea).tabular ? ExtractionMethod.SPREADSHEET : ExtractionMethod.BASIC;
+        }
+
+        /**
+         * Decides between lattice and stream the way {@link SpreadsheetExtractionAlgorithm#isTabular(PageArea)}
+         * does, except that pages without rulings go to stream right away. Stream is extracted on the page rather
+         * than on its text region: as long as both have the same text it has the same rows and columns, and it can
+         * be kept if stream wins. The lattice extraction of the region runs alongside on the common pool, unless
+         * pages must stay on the threads they are extracted on.
+         */
+        private Decision decide(PageArea pageArea) {
+            // without text nothing is tabular, without rulings lattice can't find anything
+            if (pageArea.getText().isEmpty() || pageArea.getRulings().isEmpty()) {
+                return new Decision(false, null);
+            }
+
+            try (Metrics.Timer timer = Metrics.time(Metrics.Stage.METHOD_DECISION, pageArea.getPageNumber())) {
+                // get minimal region of page that contains every character
+                PageArea minimalRegion = Metrics.untracked(() -> pageArea.getArea(Utils.bounds(pageArea.getText())).snapshot());
+                // on a single processor handing the lattice extraction to another thread only adds switches
+                ForkJoinTask<List<Table>> latticeTask = spreadsheetExtractor.isParallel() && ForkJoinPool.getCommonPoolParallelism() > 1 ?
+                        ForkJoinPool.commonPool().submit(() -> Metrics.untracked(() -> spreadsheetExtractor.extract(minimalRegion))) :
+                        null;
+                List<Table> pageStreamTables = Metrics.untracked(() -> new BasicExtractionAlgorithm().extract(pageArea));
+                boolean sameText = minimalRegion.getText().size() == pageArea.getText().size();
+
+                boolean tabular = Metrics.untracked(() -> SpreadsheetExtractionAlgorithm.isTabular(
+                        latticeTask != null ? latticeTask.join() : spreadsheetExtractor.extract(minimalRegion),
+                        sameText ? pageStreamTables : new BasicExtractionAlgorithm().extract(minimalRegion)));
+                return new Decision(tabular, pageStreamTables);
+            }
+        }
+
+        public void setParallel(boolean parallel) {
+            spreadsheetExtractor.setParallel(parallel);
+        }
+
         public List<Table> extractTablesBasic(PageArea pageArea) {
             if (guess) {
                 // guess the page areas to extract using a detection algorithm
@@ -423,7 +736,7 @@ public class CommandLineApp {
 
                 for (Rectangle guessRect : guesses) {
                     PageArea guess = pageArea.getArea(guessRect);
-                    tables.addAll(basicExtractor.extract(guess));
+                    tables.addAll(new BasicExtractionAlgorithm().extract(guess));
                 }
                 return tables;
             }
@@ -441,32 +754,39 @@ public class CommandLineApp {
                 } else {
                     absoluteRulingPositions = this.verticalRulingPositions;
                 }
-                return basicExtractor.extract(pageArea, absoluteRulingPositions);
+                return new BasicExtractionAlgorithm().extract(pageArea, absoluteRulingPositions);
             }
 
-            return basicExtractor.extract(pageArea);
+            return new BasicExtractionAlgorithm().extract(pageArea);
         }
 
         public List<Table> extractTablesSpreadsheet(PageArea pageArea) {
             // TODO add useLineReturns
             return spreadsheetExtractor.extract(pageArea);
         }
+
+        private static final class Decision {
+            private final boolean tabular;
+            // the stream extraction of the page, if the decision made one
+            private final List<Table> pageStreamTables;
+
+            Decision(boolean tabular, List<Table> pageStreamTables) {
+                this.tabular = tabular;
+                this.pageStreamTables = pageStreamTables;
+            }
+        }
     }
 
-    private void writeTables(List<Table> tables, Appendable out) throws IOException {
-        Writer writer = null;
+    private Writer createWriter() {
         switch (outputFormat) {
-            case CSV:
-                writer = new CSVWriter();
-                break;
             case JSON:
-                writer = new JSONWriter();
-                break;
+                return new JSONWriter();
             case TSV:
-                writer = new TSVWriter();
-                break;
+                return new TSVWriter();
+            case CSV:
+            default:
+                return new CSVWriter();
         }
-        writer.write(out, tables);
     }
 
     private String getOutputFilename(File pdfFile) {
@@ -485,6 +805,90 @@ public class CommandLineApp {
         return pdfFile.getPath().replaceFirst("(\\.pdf|)$", extension);
     }
 
+    /**
+     * The methods sampled areas of a document would be extracted with, and how many of them agree.
+     */
+    private static class MethodSample {
+        private int spreadsheet = 0;
+        private int basic = 0;
+
+        public void addAll(List<ExtractionMethod> methods) {
+            for (ExtractionMethod method : methods) {
+                if (method == ExtractionMethod.SPREADSHEET) {
+                    spreadsheet++;
+                } else {
+                    basic++;
+                }
+            }
+        }
+
+        // the method most of the sampled areas agree on, only used once all of them agree
+        public ExtractionMethod getMethod() {
+            return spreadsheet > basic ? ExtractionMethod.SPREADSHEET : ExtractionMethod.BASIC;
+        }
+
+        // the share of sampled areas that agree on getMethod(), 0 if none had text
+        public double getConfidence() {
+            int sampled = spreadsheet + basic;
+            return sampled == 0 ? 0 : (double) Math.max(spreadsheet, basic) / sampled;
+        }
+
+        public String summary() {
+            return String.format(Locale.ROOT, "%s in %d of %d sampled areas with text, confidence %.2f",
+                    getMethod() == ExtractionMethod.SPREADSHEET ? "lattice" : "stream",
+                    Math.max(spreadsheet, basic), spreadsheet + basic, getConfidence());
+        }
+    }
+
+    private static class BatchStatistics {
+        private final long startNanos = System.nanoTime();
+        private final List<Long> latencies = new ArrayList<>();
+        private long pages = 0;
+        private int failures = 0;
+
+        public synchronized void fileExtracted(int pageCount, long nanos) {
+            latencies.add(nanos);
+            pages += pageCount;
+        }
+
+        public synchronized void fileFailed(long nanos) {
+            latencies.add(nanos);
+            failures++;
+        }
+
+        public synchronized int getFiles() {
+            return latencies.size();
+        }
+
+        public synchronized int getFailures() {
+            return failures;
+        }
+
+        public synchronized String summary() {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return String.format(Locale.ROOT,
+                    "Extracted %d files (%d failed), %d pages in %.1f s: %.1f files/s, %.1f pages/s, per-file latency p50 %d ms, p99 %d ms",
+                    sorted.size(), failures, pages, seconds,
+                    sorted.size() / seconds, pages / seconds,
+                    percentileMillis(sorted, 50), percentileMillis(sorted, 99));
+        }
+
+        // nearest-rank percentile of an ascending list of nanosecond latencies
+        private static long percentileMillis(List<Long> sorted, int percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+            return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(rank, 1) - 1));
+        }
+    }
+
+    private interface DocumentLoader {
+        PDDocument load() throws IOException;
+    }
+
     private enum OutputFormat {
         CSV,
         TSV,
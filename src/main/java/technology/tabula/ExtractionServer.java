@@ -0,0 +1,400 @@
+package technology.tabula;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves extraction requests over HTTP, so that one JVM that has loaded and warmed up PDFBox handles many
+ * documents instead of a new process being started for each of them.
+ *
+ * {@code POST /extract} takes the PDF as request body and the options of {@link CommandLineApp#buildOptions()}
+ * as query parameters, by short or long name, e.g. {@code /extract?pages=all&lattice&f=JSON}. Tables are
+ * streamed back as their pages are done. A request whose options or document are rejected before any output
+ * was sent gets a 400 with the error message, one whose body is larger than the server accepts a 413; if
+ * extraction fails later on, the connection is dropped so the client sees a truncated response rather than a
+ * complete one. Requests are extracted on one thread each, the server's threads are what bounds the work.
+ *
+ * {@code GET /health} returns request statistics as JSON.
+ */
+final class ExtractionServer {
+
+    // options that make no sense for a single request, or that would let it use more than its thread
+    private static final String[] SERVER_ONLY_OPTIONS = {"batch", "outfile", "version", "help", "server", "threads"};
+
+    // bodies are read into memory before extraction starts
+    static final int MAX_REQUEST_BYTES = 64 * 1024 * 1024;
+
+    private static final int STOP_DELAY_SECONDS = 5;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int threads;
+    private final int maxRequestBytes;
+    private final boolean silent;
+    private final Statistics statistics = new Statistics();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    ExtractionServer(InetSocketAddress address, int threads, boolean silent) throws IOException {
+        this(address, threads, MAX_REQUEST_BYTES, silent);
+    }
+
+    ExtractionServer(InetSocketAddress address, int threads, int maxRequestBytes, boolean silent) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.threads = threads;
+        this.maxRequestBytes = maxRequestBytes;
+        this.silent = silent;
+
+        server.setExecutor(executor);
+        server.createContext("/extract", this::handleExtract);
+        server.createContext("/health", this::handleHealth);
+    }
+
+    /**
+     * Serves requests until the JVM shuts down.
+     */
+    static void run(CommandLine line) throws ParseException {
+        InetSocketAddress address = whichAddress(line.getOptionValue("server"));
+        int threads = line.hasOption("threads") ?
+                CommandLineApp.whichThreads(line) :
+                Runtime.getRuntime().availableProcessors();
+
+        ExtractionServer server;
+        try {
+            server = new ExtractionServer(address, threads, line.hasOption('i'));
+        } catch (IOException e) {
+            throw new ParseException("Cannot listen on " + address + ": " + e.getMessage());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+
+        try {
+            server.stopped.await();
+        } catch (InterruptedException e) {
+            server.stop();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void start() {
+        server.start();
+        printError("Listening on http://" + getAddress().getHostString() + ":" + getAddress().getPort());
+    }
+
+    InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting requests, and waits a few seconds for the ones in progress.
+     */
+    void stop() {
+        stop(STOP_DELAY_SECONDS);
+    }
+
+    void stop(int delaySeconds) {
+        if (stopped.getCount() == 0) {
+            return;
+        }
+        server.stop(delaySeconds);
+        executor.shutdown();
+        stopped.countDown();
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
+
+    private void handleExtract(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Use POST with the PDF as request body");
+            return;
+        }
+
+        long start = System.nanoTime();
+        statistics.requestStarted();
+        ResponseStream response = null;
+        boolean extracted = false;
+        try {
+            CommandLine line = parseRequestOptions(exchange.getRequestURI().getRawQuery());
+            byte[] pdf = readRequestBody(exchange);
+
+            response = new ResponseStream(exchange, contentType(line));
+            java.io.Writer out = new BufferedWriter(new OutputStreamWriter(response, StandardCharsets.UTF_8));
+            CommandLineApp app = new CommandLineApp(out, line);
+            // requests are served on the server's threads only
+            app.setParallelWithinPages(false);
+            int pageCount = app.extractDocument(pdf, out);
+            // counted before the response completes, so that a client can see its own request in /health
+            statistics.requestSucceeded(pageCount, System.nanoTime() - start);
+            extracted = true;
+
+            out.close();
+            exchange.close();
+        } catch (ParseException | IOException | RuntimeException e) {
+            if (!extracted) {
+                statistics.requestFailed(System.nanoTime() - start);
+            }
+            // not the query, it can hold the document's password
+            printError(exchange.getRequestURI().getPath() + ": " + e.getMessage());
+            if (response != null && response.isCommitted()) {
+                // the status line is gone, an exception makes the server drop the connection
+                throw new IOException("Extraction failed after the response was started", e);
+            }
+            int status = e instanceof RequestTooLargeException ? 413 : e instanceof RuntimeException ? 500 : 400;
+            sendText(exchange, status, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendText(exchange, 405, "Use GET");
+            return;
+        }
+
+        JsonObject health = statistics.toJson();
+        health.addProperty("threads", threads);
+        byte[] body = health.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void printError(String message) {
+        if (!silent) {
+            System.err.println(message);
+        }
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
+
+    static InetSocketAddress whichAddress(String value) throws ParseException {
+        int colon = value.lastIndexOf(':');
+        String host = colon < 0 ? null : value.substring(0, colon);
+        if (host != null && host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+
+        try {
+            int port = Integer.parseInt(value.substring(colon + 1));
+            return host == null ?
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port) :
+                    new InetSocketAddress(host, port);
+        } catch (IllegalArgumentException e) {
+            throw new ParseException("server must be [HOST:]PORT");
+        }
+    }
+
+    /**
+     * Turns {@code pages=1-3&l&format=JSON} into the command line {@code --pages=1-3 --lattice --format=JSON}.
+     */
+    static CommandLine parseRequestOptions(String rawQuery) throws ParseException {
+        Options options = CommandLineApp.buildOptions();
+        List<String> args = new ArrayList<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                if (parameter.isEmpty()) {
+                    continue;
+                }
+                int equals = parameter.indexOf('=');
+                String name = decode(equals < 0 ? parameter : parameter.substring(0, equals));
+                Option option = options.getOption(name);
+                if (option == null) {
+                    throw new ParseException("Unrecognized option: " + name);
+                }
+                // the = form keeps values such as negative coordinates from being taken for options
+                args.add(equals < 0 ?
+                        "--" + option.getLongOpt() :
+                        "--" + option.getLongOpt() + "=" + decode(parameter.substring(equals + 1)));
+            }
+        }
+
+        CommandLine line = new DefaultParser().parse(options, args.toArray(new String[0]));
+        for (String name : SERVER_ONLY_OPTIONS) {
+            if (line.hasOption(name)) {
+                throw new ParseException(name + " cannot be used in a request");
+            }
+        }
+        return line;
+    }
+
+    private static String decode(String value) throws ParseException {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            throw new ParseException("Malformed query parameter: " + value);
+        }
+    }
+
+    private static String contentType(CommandLine line) {
+        switch (line.getOptionValue('f', "CSV")) {
+            case "JSON":
+                return "application/json; charset=utf-8";
+            case "TSV":
+                return "text/tab-separated-values; charset=utf-8";
+            case "CSV":
+            default:
+                return "text/csv; charset=utf-8";
+        }
+    }
+
+    private byte[] readRequestBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength) > maxRequestBytes) {
+                    throw new RequestTooLargeException(maxRequestBytes);
+                }
+            } catch (NumberFormatException e) {
+                // the body is counted while it is read
+            }
+        }
+        return readFully(exchange.getRequestBody(), maxRequestBytes);
+    }
+
+    private static byte[] readFully(InputStream in, int maxBytes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            if (bytes.size() + n > maxBytes) {
+                throw new RequestTooLargeException(maxBytes);
+            }
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class RequestTooLargeException extends IOException {
+        RequestTooLargeException(int maxBytes) {
+            super("Request body is larger than " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * The response body of a successful extraction. The status line is only sent once output arrives,
+     * so that errors up to then can still be reported with a status of their own.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final String contentType;
+        private OutputStream body;
+
+        ResponseStream(HttpExchange exchange, String contentType) {
+            this.exchange = exchange;
+            this.contentType = contentType;
+        }
+
+        boolean isCommitted() {
+            return body != null;
+        }
+
+        private OutputStream commit() throws IOException {
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", contentType);
+                // chunked, the length isn't known until the last page is done
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            commit().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            commit().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null) {
+                body.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            commit().close();
+        }
+    }
+
+    private static class Statistics {
+        private final long startNanos = System.nanoTime();
+        private int active = 0;
+        private long requests = 0;
+        private long failures = 0;
+        private long pages = 0;
+        private long totalNanos = 0;
+
+        public synchronized void requestStarted() {
+            active++;
+        }
+
+        public synchronized void requestSucceeded(int pageCount, long nanos) {
+            requestFinished(nanos);
+            pages += pageCount;
+        }
+
+        public synchronized void requestFailed(long nanos) {
+            requestFinished(nanos);
+            failures++;
+        }
+
+        private void requestFinished(long nanos) {
+            active--;
+            requests++;
+            totalNanos += nanos;
+        }
+
+        public synchronized JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("status", "ok");
+            json.addProperty("uptime_ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            json.addProperty("active_requests", active);
+            json.addProperty("requests", requests);
+            json.addProperty("failed_requests", failures);
+            json.addProperty("pages", pages);
+            json.addProperty("mean_latency_ms", requests == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos / requests));
+            return json;
+        }
+    }
+
+}
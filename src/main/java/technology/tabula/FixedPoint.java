@@ -0,0 +1,76 @@
+package technology.tabula;
+
+import java.math.BigDecimal;
+
+/**
+ * Coordinates rounded to integer hundredths of a point.
+ *
+ * Rounding follows what {@code new BigDecimal(Double.toString(d)).setScale(2, ROUND_HALF_UP)} does, i.e. ties
+ * are decided on the shortest decimal representation of the double and go away from zero, but without
+ * allocating. Text elements, rulings and the point comparators all round through here.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 100;
+
+    // below 2^22 hundredths, (float) n / SCALE is the correctly rounded value of n / 100, like BigDecimal.floatValue()
+    private static final long MAX_EXACT_HUNDREDTHS = 1L << 22;
+    private static final double MAX_EXACT_VALUE = (double) MAX_EXACT_HUNDREDTHS / SCALE;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @throws NumberFormatException if {@code d} is NaN or infinite
+     */
+    public static long toHundredths(double d) {
+        double a = Math.abs(d);
+        if (!(a < MAX_EXACT_VALUE)) {
+            return bigDecimal(d).unscaledValue().longValue();
+        }
+
+        // (n + 0.5) / 100 is the double nearest to the decimal tie between n and n + 1 hundredths. When it
+        // equals a, Double.toString(a) prints exactly that tie, which rounds up; otherwise both sit on the same side.
+        long n = (long) (a * SCALE);
+        while (n > 0 && a < (n - 0.5) / SCALE) {
+            n--;
+        }
+        while (a >= (n + 0.5) / SCALE) {
+            n++;
+        }
+        return d < 0 ? -n : n;
+    }
+
+    public static float toFloat(long hundredths) {
+        if (hundredths == 0) {
+            // BigDecimal has no negative zero
+            return 0f;
+        }
+        if (Math.abs(hundredths) < MAX_EXACT_HUNDREDTHS) {
+            return (float) hundredths / SCALE;
+        }
+        return BigDecimal.valueOf(hundredths, 2).floatValue();
+    }
+
+    /**
+     * Same result as {@code Utils.round(d, 2)}.
+     */
+    public static float round(double d) {
+        if (!(Math.abs(d) < MAX_EXACT_VALUE)) {
+            return bigDecimal(d).floatValue();
+        }
+        return toFloat(toHundredths(d));
+    }
+
+    /**
+     * Compares two coordinates after rounding both to hundredths.
+     */
+    public static int compare(double d1, double d2) {
+        return Float.compare(round(d1), round(d2));
+    }
+
+    private static BigDecimal bigDecimal(double d) {
+        return new BigDecimal(Double.toString(d)).setScale(2, BigDecimal.ROUND_HALF_UP);
+    }
+
+}
@@ -0,0 +1,254 @@
+package technology.tabula;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+import java.awt.geom.Rectangle2D;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The glyphs of a page in parallel primitive arrays, with the fonts interned and the text of all glyphs in
+ * one char array.
+ *
+ * A {@link TextElement} is only created when a glyph is asked for, and then kept, so that a glyph is always
+ * represented by the same object. Glyph ids are the order in which glyphs were added; {@link #asList()}
+ * lists them in reading order once {@link #sortInReadingOrder()} ran.
+ */
+final class GlyphStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // most glyphs are a single char of one of the common scripts, these share their String
+    private static final String[] SINGLE_CHAR_TEXTS = new String[0x3000];
+
+    private int size = 0;
+    private float[] tops = new float[INITIAL_CAPACITY];
+    private float[] lefts = new float[INITIAL_CAPACITY];
+    private float[] widths = new float[INITIAL_CAPACITY];
+    private float[] heights = new float[INITIAL_CAPACITY];
+    private float[] fontSizes = new float[INITIAL_CAPACITY];
+    private float[] widthsOfSpace = new float[INITIAL_CAPACITY];
+    private float[] directions = new float[INITIAL_CAPACITY];
+    private int[] fontIds = new int[INITIAL_CAPACITY];
+    // the text of glyph i is chars[textEnds[i - 1]..textEnds[i])
+    private int[] textEnds = new int[INITIAL_CAPACITY];
+    private char[] chars = new char[INITIAL_CAPACITY];
+
+    private final List<PDFont> fonts = new ArrayList<>();
+    private final Map<PDFont, Integer> fontIdsByFont = new IdentityHashMap<>();
+
+    // glyph ids in reading order, null while that is the order they were added in
+    private int[] order;
+    // created on first use, so that threads reading the glyphs of a shared page all get the same elements
+    private volatile AtomicReferenceArray<TextElement> elements;
+
+    public void add(float top, float left, float width, float height,
+                    PDFont font, float fontSize, String text, float widthOfSpace, float direction) {
+        if (size == tops.length) {
+            grow();
+        }
+        int textStart = textStart(size);
+        if (textStart + text.length() > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, textStart + text.length()));
+        }
+        text.getChars(0, text.length(), chars, textStart);
+
+        tops[size] = top;
+        lefts[size] = left;
+        widths[size] = width;
+        heights[size] = height;
+        fontSizes[size] = fontSize;
+        widthsOfSpace[size] = widthOfSpace;
+        directions[size] = direction;
+        fontIds[size] = fontId(font);
+        textEnds[size] = textStart + text.length();
+        size++;
+
+        order = null;
+        if (elements != null) {
+            elements = null;
+        }
+    }
+
+    private void grow() {
+        int capacity = tops.length * 2;
+        tops = Arrays.copyOf(tops, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        fontSizes = Arrays.copyOf(fontSizes, capacity);
+        widthsOfSpace = Arrays.copyOf(widthsOfSpace, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        fontIds = Arrays.copyOf(fontIds, capacity);
+        textEnds = Arrays.copyOf(textEnds, capacity);
+    }
+
+    private int fontId(PDFont font) {
+        Integer id = fontIdsByFont.get(font);
+        if (id == null) {
+            id = fonts.size();
+            fonts.add(font);
+            fontIdsByFont.put(font, id);
+        }
+        return id;
+    }
+
+    private int textStart(int glyph) {
+        return glyph == 0 ? 0 : textEnds[glyph - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public float getTop(int glyph) {
+        return tops[glyph];
+    }
+
+    public float getLeft(int glyph) {
+        return lefts[glyph];
+    }
+
+    public float getWidth(int glyph) {
+        return widths[glyph];
+    }
+
+    public float getHeight(int glyph) {
+        return heights[glyph];
+    }
+
+    public String getText(int glyph) {
+        int start = textStart(glyph);
+        int length = textEnds[glyph] - start;
+        if (length == 1 && chars[start] < SINGLE_CHAR_TEXTS.length) {
+            String text = SINGLE_CHAR_TEXTS[chars[start]];
+            if (text == null) {
+                // racing threads may each create one, either is fine
+                text = String.valueOf(chars[start]);
+                SINGLE_CHAR_TEXTS[chars[start]] = text;
+            }
+            return text;
+        }
+        return new String(chars, start, length);
+    }
+
+    /**
+     * The {@link TextElement} of a glyph, created on first use.
+     */
+    public TextElement getElement(int glyph) {
+        AtomicReferenceArray<TextElement> elements = this.elements;
+        if (elements == null) {
+            elements = createElements();
+        }
+        TextElement element = elements.get(glyph);
+        if (element == null) {
+            element = new TextElement(tops[glyph], lefts[glyph], widths[glyph], heights[glyph],
+                    fonts.get(fontIds[glyph]), fontSizes[glyph], getText(glyph), widthsOfSpace[glyph], directions[glyph]);
+            // racing threads keep whichever was created first
+            if (!elements.compareAndSet(glyph, null, element)) {
+                element = elements.get(glyph);
+            }
+        }
+        return element;
+    }
+
+    private synchronized AtomicReferenceArray<TextElement> createElements() {
+        if (elements == null) {
+            elements = new AtomicReferenceArray<>(tops.length);
+        }
+        return elements;
+    }
+
+    /**
+     * Orders the glyphs like {@code Utils.sort(elements, Rectangle.ILL_DEFINED_ORDER)} would, without
+     * creating their {@link TextElement}s. That order only depends on the geometry of the glyphs.
+     */
+    @SuppressWarnings("deprecation")
+    public void sortInReadingOrder() {
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        Rectangle r1 = new Rectangle();
+        Rectangle r2 = new Rectangle();
+        Utils.sort(Arrays.asList(sorted), (g1, g2) -> {
+            r1.setRect(lefts[g1], tops[g1], widths[g1], heights[g1]);
+            r2.setRect(lefts[g2], tops[g2], widths[g2], heights[g2]);
+            return Rectangle.ILL_DEFINED_ORDER.compare(r1, r2);
+        });
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = sorted[i];
+        }
+        this.order = order;
+    }
+
+    /**
+     * The glyphs in reading order if sorted, as a read-only list whose elements are created as they are read.
+     */
+    public List<TextElement> asList() {
+        return new GlyphList();
+    }
+
+    /**
+     * A spatial index of the glyphs of {@link #asList()}, answering in that order. It is built from the
+     * geometry arrays, so only the glyphs that queries return get their {@link TextElement} created.
+     */
+    public RectangleSpatialIndex<TextElement> newIndex() {
+        float[] xs = new float[size], ys = new float[size], ws = new float[size], hs = new float[size];
+        for (int i = 0; i < size; i++) {
+            int g = order == null ? i : order[i];
+            xs[i] = lefts[g];
+            ys[i] = tops[g];
+            ws[i] = widths[g];
+            hs[i] = heights[g];
+        }
+        return RectangleSpatialIndex.of(asList(), xs, ys, ws, hs);
+    }
+
+    /**
+     * Bounding box of all glyphs, the same as {@link Utils#bounds(java.util.Collection)} of {@link #asList()},
+     * or an empty rectangle if there are none.
+     */
+    public Rectangle getBounds() {
+        Rectangle bounds = new Rectangle();
+        if (size == 0) {
+            return bounds;
+        }
+        // in list order, the float rounding of the union depends on it
+        Rectangle glyph = new Rectangle();
+        for (int i = 0; i < size; i++) {
+            int g = order == null ? i : order[i];
+            glyph.setRect(lefts[g], tops[g], widths[g], heights[g]);
+            if (i == 0) {
+                bounds.setRect(glyph);
+            } else {
+                Rectangle2D.union(glyph, bounds, bounds);
+            }
+        }
+        return bounds;
+    }
+
+    private class GlyphList extends AbstractList<TextElement> implements RandomAccess {
+        @Override
+        public TextElement get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return getElement(order == null ? index : order[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+}
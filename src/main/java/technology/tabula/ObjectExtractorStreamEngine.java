@@ -7,40 +7,69 @@ import java.awt.geom.Line2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
-import org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine;
-import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.contentstream.operator.MissingOperandException;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.contentstream.operator.OperatorName;
+import org.apache.pdfbox.contentstream.operator.OperatorProcessor;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType3CharProc;
+import org.apache.pdfbox.pdmodel.font.PDType3Font;
+import org.apache.pdfbox.util.Matrix;
+import org.apache.pdfbox.util.Vector;
 
 import static java.awt.geom.PathIterator.*;
 
-class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
+/**
+ * Collects the rulings and the text elements of a page in a single pass over its content stream.
+ * <p>
+ * Text is handled by {@link TextStripper}; the path construction and painting operators, which
+ * {@link org.apache.pdfbox.text.PDFTextStripper} ignores, are registered on top of it so that
+ * ruling lines can be gathered in the same traversal.
+ */
+class ObjectExtractorStreamEngine extends TextStripper {
 
     protected List<Ruling> rulings;
     private AffineTransform pageTransform;
     private boolean extractRulingLines = true;
-    private Logger logger;
     private int clipWindingRule = -1;
     private GeneralPath currentPath = new GeneralPath();
+    private int type3GlyphDepth = 0;
 
     private static final float RULING_MINIMUM_LENGTH = 0.01f;
 
-    protected ObjectExtractorStreamEngine(PDPage page) {
-        super(page);
-        logger = LoggerFactory.getLogger(ObjectExtractorStreamEngine.class);
+    private static final String[] PATH_OPERATORS = {
+            OperatorName.MOVE_TO, OperatorName.LINE_TO, OperatorName.CURVE_TO,
+            OperatorName.CURVE_TO_REPLICATE_INITIAL_POINT, OperatorName.CURVE_TO_REPLICATE_FINAL_POINT,
+            OperatorName.CLOSE_PATH, OperatorName.APPEND_RECT, OperatorName.ENDPATH,
+            OperatorName.STROKE_PATH, OperatorName.CLOSE_AND_STROKE,
+            OperatorName.FILL_NON_ZERO, OperatorName.LEGACY_FILL_NON_ZERO, OperatorName.FILL_EVEN_ODD,
+            OperatorName.FILL_NON_ZERO_AND_STROKE, OperatorName.FILL_EVEN_ODD_AND_STROKE,
+            OperatorName.CLOSE_FILL_NON_ZERO_AND_STROKE, OperatorName.CLOSE_FILL_EVEN_ODD_AND_STROKE,
+            OperatorName.CLIP_NON_ZERO, OperatorName.CLIP_EVEN_ODD
+    };
+
+    protected ObjectExtractorStreamEngine(PDDocument document, PDPage page, int pageNumber) throws IOException {
+        super(document, pageNumber);
         rulings = new ArrayList<>();
 
+        for (String operatorName : PATH_OPERATORS) {
+            addOperator(new PathOperator(operatorName));
+        }
+
         // Calculate page transform:
         pageTransform = new AffineTransform();
-        PDRectangle pageCropBox = getPage().getCropBox();
-        int rotationAngleInDegrees = getPage().getRotation();
+        PDRectangle pageCropBox = page.getCropBox();
+        int rotationAngleInDegrees = page.getRotation();
 
         if (Math.abs(rotationAngleInDegrees) == 90 || Math.abs(rotationAngleInDegrees) == 270) {
             double rotationAngleInRadians = rotationAngleInDegrees * (Math.PI / 180.0);
@@ -57,6 +86,27 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
 
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
     @Override
+    protected void showGlyph(Matrix textRenderingMatrix, PDFont font, int code, String unicode, Vector displacement) throws IOException {
+        // glyphs drawn by a Type 3 glyph procedure are part of the glyph itself, not text
+        if (type3GlyphDepth == 0) {
+            super.showGlyph(textRenderingMatrix, font, code, unicode, displacement);
+        }
+
+        // PDFTextStripper doesn't run Type 3 glyph procedures, but their paths may be rulings
+        if (font instanceof PDType3Font) {
+            PDType3CharProc charProc = ((PDType3Font) font).getCharProc(code);
+            if (charProc != null) {
+                type3GlyphDepth++;
+                try {
+                    processType3Stream(charProc, textRenderingMatrix);
+                } finally {
+                    type3GlyphDepth--;
+                }
+            }
+        }
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
     public void appendRectangle(Point2D p0, Point2D p1, Point2D p2, Point2D p3) {
         currentPath.moveTo((float) p0.getX(), (float) p0.getY());
         currentPath.lineTo((float) p1.getX(), (float) p1.getY());
@@ -65,27 +115,20 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
         currentPath.closePath();
     }
 
-    @Override
     public void clip(int windingRule) {
         // The clipping path will not be updated until the succeeding painting
         // operator is called.
         clipWindingRule = windingRule;
     }
 
-    @Override
     public void closePath() {
         currentPath.closePath();
     }
 
-    @Override
     public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) {
         currentPath.curveTo(x1, y1, x2, y2, x3, y3);
     }
 
-    @Override
-    public void drawImage(PDImage arg0) {}
-
-    @Override
     public void endPath() {
         if (clipWindingRule != -1) {
             currentPath.setWindingRule(clipWindingRule);
@@ -95,37 +138,28 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
         currentPath.reset();
     }
 
-    @Override
-    public void fillAndStrokePath(int arg0) {
+    public void fillAndStrokePath() {
         strokeOrFillPath(true);
     }
 
-    @Override
-    public void fillPath(int arg0) {
+    public void fillPath() {
         strokeOrFillPath(true);
     }
 
-    @Override
     public Point2D getCurrentPoint() {
         return currentPath.getCurrentPoint();
     }
 
-    @Override
     public void lineTo(float x, float y) {
         currentPath.lineTo(x, y);
     }
 
-    @Override
     public void moveTo(float x, float y) {
         currentPath.moveTo(x, y);
     }
 
-    @Override
-    public void shadingFill(COSName arg0) {}
-
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
-    @Override
-    public void strokePath()  {
+    public void strokePath() {
         strokeOrFillPath(false);
     }
 
@@ -214,8 +248,8 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
     private Point2D.Float getStartPoint(PathIterator pathIterator) {
         float[] startPointCoordinates = new float[6];
         pathIterator.currentSegment(startPointCoordinates);
-        float x = Utils.round(startPointCoordinates[0], 2);
-        float y = Utils.round(startPointCoordinates[1], 2);
+        float x = FixedPoint.round(startPointCoordinates[0]);
+        float y = FixedPoint.round(startPointCoordinates[1]);
         return new Point2D.Float(x, y);
     }
 
@@ -251,10 +285,10 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
     class PointComparator implements Comparator<Point2D> {
         @Override
         public int compare(Point2D p1, Point2D p2) {
-            float p1X = Utils.round(p1.getX(), 2);
-            float p1Y = Utils.round(p1.getY(), 2);
-            float p2X = Utils.round(p2.getX(), 2);
-            float p2Y = Utils.round(p2.getY(), 2);
+            float p1X = FixedPoint.round(p1.getX());
+            float p1Y = FixedPoint.round(p1.getY());
+            float p2X = FixedPoint.round(p2.getX());
+            float p2Y = FixedPoint.round(p2.getY());
 
             if (p1Y > p2Y)
                 return 1;
@@ -268,4 +302,149 @@ class ObjectExtractorStreamEngine extends PDFGraphicsStreamEngine {
         }
     }
 
+    /**
+     * Path construction, painting and clipping operators, mirroring the ones
+     * {@link org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine} registers.
+     */
+    private final class PathOperator extends OperatorProcessor {
+
+        private final String name;
+
+        PathOperator(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void process(Operator operator, List<COSBase> operands) throws IOException {
+            switch (name) {
+                case OperatorName.MOVE_TO: {
+                    Point2D.Float[] points = transformedPoints(operator, operands, 2);
+                    if (points != null) {
+                        moveTo(points[0].x, points[0].y);
+                    }
+                    break;
+                }
+                case OperatorName.LINE_TO: {
+                    Point2D.Float[] points = transformedPoints(operator, operands, 2);
+                    if (points == null) {
+                        break;
+                    }
+                    if (getCurrentPoint() == null) {
+                        moveTo(points[0].x, points[0].y);
+                    } else {
+                        lineTo(points[0].x, points[0].y);
+                    }
+                    break;
+                }
+                case OperatorName.CURVE_TO: {
+                    Point2D.Float[] points = transformedPoints(operator, operands, 6);
+                    if (points == null) {
+                        break;
+                    }
+                    if (getCurrentPoint() == null) {
+                        moveTo(points[2].x, points[2].y);
+                    } else {
+                        curveTo(points[0].x, points[0].y, points[1].x, points[1].y, points[2].x, points[2].y);
+                    }
+                    break;
+                }
+                case OperatorName.CURVE_TO_REPLICATE_INITIAL_POINT: {
+                    Point2D.Float[] points = transformedPoints(operator, operands, 4);
+                    if (points == null) {
+                        break;
+                    }
+                    Point2D currentPoint = getCurrentPoint();
+                    if (currentPoint == null) {
+                        moveTo(points[1].x, points[1].y);
+                    } else {
+                        curveTo((float) currentPoint.getX(), (float) currentPoint.getY(),
+                                points[0].x, points[0].y, points[1].x, points[1].y);
+                    }
+                    break;
+                }
+                case OperatorName.CURVE_TO_REPLICATE_FINAL_POINT: {
+                    Point2D.Float[] points = transformedPoints(operator, operands, 4);
+                    if (points != null) {
+                        curveTo(points[0].x, points[0].y, points[1].x, points[1].y, points[1].x, points[1].y);
+                    }
+                    break;
+                }
+                case OperatorName.APPEND_RECT: {
+                    if (operands.size() < 4) {
+                        throw new MissingOperandException(operator, operands);
+                    }
+                    if (!checkArrayTypesClass(operands, COSNumber.class)) {
+                        break;
+                    }
+                    float x1 = ((COSNumber) operands.get(0)).floatValue();
+                    float y1 = ((COSNumber) operands.get(1)).floatValue();
+                    float x2 = ((COSNumber) operands.get(2)).floatValue() + x1;
+                    float y2 = ((COSNumber) operands.get(3)).floatValue() + y1;
+                    appendRectangle(transformedPoint(x1, y1), transformedPoint(x2, y1),
+                            transformedPoint(x2, y2), transformedPoint(x1, y2));
+                    break;
+                }
+                case OperatorName.CLOSE_PATH:
+                    closeCurrentPath();
+                    break;
+                case OperatorName.ENDPATH:
+                    endPath();
+                    break;
+                case OperatorName.STROKE_PATH:
+                    strokePath();
+                    break;
+                case OperatorName.CLOSE_AND_STROKE:
+                    closeCurrentPath();
+                    strokePath();
+                    break;
+                case OperatorName.FILL_NON_ZERO:
+                case OperatorName.LEGACY_FILL_NON_ZERO:
+                case OperatorName.FILL_EVEN_ODD:
+                    fillPath();
+                    break;
+                case OperatorName.FILL_NON_ZERO_AND_STROKE:
+                case OperatorName.FILL_EVEN_ODD_AND_STROKE:
+                    fillAndStrokePath();
+                    break;
+                case OperatorName.CLOSE_FILL_NON_ZERO_AND_STROKE:
+                case OperatorName.CLOSE_FILL_EVEN_ODD_AND_STROKE:
+                    closeCurrentPath();
+                    fillAndStrokePath();
+                    break;
+                case OperatorName.CLIP_NON_ZERO:
+                    clip(GeneralPath.WIND_NON_ZERO);
+                    break;
+                case OperatorName.CLIP_EVEN_ODD:
+                    clip(GeneralPath.WIND_EVEN_ODD);
+                    break;
+            }
+        }
+
+        private void closeCurrentPath() {
+            if (getCurrentPoint() != null) {
+                closePath();
+            }
+        }
+
+        private Point2D.Float[] transformedPoints(Operator operator, List<COSBase> operands, int count) throws IOException {
+            if (operands.size() < count) {
+                throw new MissingOperandException(operator, operands);
+            }
+            if (!checkArrayTypesClass(operands.subList(0, count), COSNumber.class)) {
+                return null;
+            }
+            Point2D.Float[] points = new Point2D.Float[count / 2];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = transformedPoint(((COSNumber) operands.get(2 * i)).floatValue(),
+                        ((COSNumber) operands.get(2 * i + 1)).floatValue());
+            }
+            return points;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
 }
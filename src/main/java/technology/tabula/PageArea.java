@@ -2,9 +2,11 @@ package technology.tabula;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import technology.tabula.metrics.Metrics;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static java.lang.Float.compare;
@@ -19,6 +21,8 @@ public class PageArea extends Rectangle {
     private float minCharHeight;
 
     private List<TextElement> textElements;
+    // set if the text elements are those of a whole page, as extracted
+    private GlyphStore glyphs;
 
     // TODO: Create a class for 'List <Ruling>' that encapsulates all of these lists and their behaviors?
     private List<Ruling> rulings,
@@ -29,7 +33,14 @@ public class PageArea extends Rectangle {
     private PDPage pdPage;
     private PDDocument pdDoc;
 
-    private RectangleSpatialIndex<TextElement> spatialIndex;
+    private volatile RectangleSpatialIndex<TextElement> spatialIndex;
+
+    // set for snapshots, whose rulings are cleaned up once and can't be added to
+    private boolean frozen = false;
+    // set for the views of getArea(), whose text and rulings are read from it on first use
+    private PageArea parent;
+    // the parent's cleaned up rulings when the view was made, cropped on first use
+    private List<Ruling> parentRulings;
 
     private static final float DEFAULT_MIN_CHAR_LENGTH = 7;
 
@@ -57,28 +68,110 @@ public class PageArea extends Rectangle {
         this.spatialIndex = index;
     }
 
-    public PageArea getArea(Rectangle area) {
-        List<TextElement> areaTextElements = getText(area);
+    PageArea(
+            PageDims pageDims,
+            int rotation,
+            int number,
+            PDPage pdPage,
+            PDDocument doc,
+            GlyphStore glyphs,
+            List<Ruling> rulings,
+            float minCharWidth,
+            float minCharHeight
+            ) {
+        this(pageDims, rotation, number, pdPage, doc, glyphs.asList(), rulings, minCharWidth, minCharHeight, null);
+        this.glyphs = glyphs;
+    }
 
-        float minimumCharWidth = getMinimumCharWidthFrom(areaTextElements);
-        float minimumCharHeight = getMinimumCharHeightFrom(areaTextElements);
+    private PageArea(PageArea page) {
+        super(page.getTop(), page.getLeft(), (float) page.getWidth(), (float) page.getHeight());
+        this.rotation = page.rotation;
+        this.number = page.number;
+        this.pdPage = page.pdPage;
+        this.pdDoc = page.pdDoc;
+        this.glyphs = page.glyphs;
+        // the glyph list is read-only already
+        this.textElements = page.glyphs != null ? page.textElements : Collections.unmodifiableList(new ArrayList<>(page.getText()));
+        List<Ruling> pageRulings = page.getUnprocessedRulings();
+        this.minCharWidth = page.minCharWidth;
+        this.minCharHeight = page.minCharHeight;
+        // a view answers area queries from the index of the whole page
+        this.spatialIndex = page.parent != null ? page.getIndex() : page.spatialIndex;
+
+        // cleaning up snaps the rulings in place, so clean up copies
+        List<Ruling> rulings = new ArrayList<>();
+        if (pageRulings != null) {
+            for (Ruling ruling : pageRulings) {
+                rulings.add((Ruling) ruling.clone());
+            }
+        }
+        this.rulings = rulings;
+        getRulings();
+        this.rulings = Collections.unmodifiableList(rulings);
+        this.verticalRulingLines = Collections.unmodifiableList(verticalRulingLines);
+        this.horizontalRulingLines = Collections.unmodifiableList(horizontalRulingLines);
+        this.cleanRulings = cleanRulings == null ? Collections.<Ruling>emptyList() : Collections.unmodifiableList(cleanRulings);
+        this.frozen = true;
+    }
 
-        final PageArea pageArea = PageBuilder.newInstance()
-                .withPageDims(PageDims.of(area.getTop(), area.getLeft(), (float) area.getWidth(), (float) area.getHeight()))
-                .withRotation(rotation)
-                .withNumber(number)
-                .withPdPage(pdPage)
-                .withPdDocument(pdDoc)
-                .withTextElements(areaTextElements)
-                .withRulings(Ruling.cropRulingsToArea(getRulings(), area))
-                .withMinCharWidth(minimumCharWidth)
-                .withMinCharHeight(minimumCharHeight)
-                .withIndex(spatialIndex)
-                .build();
+    /**
+     * A copy of this page area that threads can share, with its rulings snapped and collapsed once, here.
+     *
+     * The snapshot's text and rulings are read-only lists, no ruling can be added to it, and later changes to
+     * this page area don't reach it. Its text is indexed on first use, once. Extractors only read the page
+     * they are given, so several of them can work on the same snapshot at the same time.
+     */
+    public PageArea snapshot() {
+        return frozen ? this : new PageArea(this);
+    }
 
-        addBorderRulingsTo(pageArea);
+    /**
+     * Whether this is a {@link #snapshot()}.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
 
-        return pageArea;
+    private PageArea(PageArea parent, Rectangle area) {
+        super(area.getTop(), area.getLeft(), (float) area.getWidth(), (float) area.getHeight());
+        this.rotation = parent.rotation;
+        this.number = parent.number;
+        this.pdPage = parent.pdPage;
+        this.pdDoc = parent.pdDoc;
+        this.parent = parent;
+        this.parentRulings = parent.getRulings();
+    }
+
+    /**
+     * The part of this page area within {@code area}, as a view of it: the text within the area is looked up in
+     * this page area's index once it is first read, and the rulings are cropped from this page area's cleaned up
+     * ones, and bordered, once they are first read. An extraction that doesn't read rulings never crops them.
+     * The view crops the rulings this page area has when the view is made: rulings added to this page area
+     * afterwards don't reach it.
+     *
+     * Like other page areas, a view fills itself in as it is read, so a view to be shared between threads must be
+     * {@link #snapshot() snapshot} first.
+     */
+    public PageArea getArea(Rectangle area) {
+        return new PageArea(this, area);
+    }
+
+    // the text of a view, looked up in its parent
+    private void readTextFromParent() {
+        if (parent != null && textElements == null) {
+            textElements = parent.getText(this);
+        }
+    }
+
+    // the rulings of a view, cropped from the cleaned up ones of its parent
+    private void readRulingsFromParent() {
+        if (parent != null && rulings == null) {
+            List<TextElement> areaTextElements = getText();
+            minCharWidth = getMinimumCharWidthFrom(areaTextElements);
+            minCharHeight = getMinimumCharHeightFrom(areaTextElements);
+            rulings = Ruling.cropRulingsToArea(parentRulings, this);
+            addBorderRulingsTo(this);
+        }
     }
 
     private float getMinimumCharWidthFrom(List<TextElement> areaTextElements) {
@@ -121,17 +214,47 @@ public class PageArea extends Rectangle {
 
 
     public List<TextElement> getText() {
+        readTextFromParent();
         return textElements;
     }
 
     public List<TextElement> getText(Rectangle area) {
-        return spatialIndex.contains(area);
+        return getIndex().contains(area);
+    }
+
+    /**
+     * The text elements within each of {@code areas}, for each area in turn.
+     */
+    public List<List<TextElement>> getText(List<? extends Rectangle> areas) {
+        return getIndex().contains(areas);
+    }
+
+    private RectangleSpatialIndex<TextElement> getIndex() {
+        RectangleSpatialIndex<TextElement> index = spatialIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = spatialIndex;
+                if (index == null) {
+                    if (parent != null) {
+                        index = parent.getIndex();
+                    } else {
+                        // in reading order, which is then the order of query results
+                        index = glyphs != null ? glyphs.newIndex() : RectangleSpatialIndex.of(textElements);
+                    }
+                    spatialIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
     /**
      * Returns the minimum bounding box that contains all the TextElements on this Page
      */
     public Rectangle getTextBounds() {
+        if (glyphs != null) {
+            return glyphs.getBounds();
+        }
         List<TextElement> texts = this.getText();
         if (!texts.isEmpty()) {
             return Utils.bounds(texts);
@@ -145,6 +268,7 @@ public class PageArea extends Rectangle {
         if (cleanRulings != null) {
             return cleanRulings;
         }
+        readRulingsFromParent();
 
         if (rulings == null || rulings.isEmpty()) {
             verticalRulingLines = new ArrayList<>();
@@ -152,11 +276,13 @@ public class PageArea extends Rectangle {
             return new ArrayList<>();
         }
 
-        // TODO: Move as a static method to the Ruling class?
-        Utils.snapPoints(rulings, minCharWidth, minCharHeight);
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.RULING_CLEANUP, number)) {
+            // TODO: Move as a static method to the Ruling class?
+            Utils.snapPoints(rulings, minCharWidth, minCharHeight);
 
-        verticalRulingLines = getCollapsedVerticalRulings();
-        horizontalRulingLines = getCollapsedHorizontalRulings();
+            verticalRulingLines = getCollapsedVerticalRulings();
+            horizontalRulingLines = getCollapsedHorizontalRulings();
+        }
 
         cleanRulings = new ArrayList<>(verticalRulingLines);
         cleanRulings.addAll(horizontalRulingLines);
@@ -202,9 +328,13 @@ public class PageArea extends Rectangle {
     }
 
     public void addRuling(Ruling ruling) {
+        if (frozen) {
+            throw new UnsupportedOperationException("Can't add a ruling to a snapshot.");
+        }
         if (ruling.oblique()) {
             throw new UnsupportedOperationException("Can't add an oblique ruling.");
         }
+        readRulingsFromParent();
         rulings.add(ruling);
         // Clear caches:
         verticalRulingLines = null;
@@ -213,6 +343,7 @@ public class PageArea extends Rectangle {
     }
 
     public List<Ruling> getUnprocessedRulings() {
+        readRulingsFromParent();
         return rulings;
     }
 
@@ -232,6 +363,6 @@ public class PageArea extends Rectangle {
      */
     @Deprecated
     public RectangleSpatialIndex<TextElement> getSpatialIndex() {
-        return spatialIndex;
+        return getIndex();
     }
 }
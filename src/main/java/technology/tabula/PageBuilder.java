@@ -16,6 +16,7 @@ public class PageBuilder {
     private float minCharWidth;
     private float minCharHeight;
     private RectangleSpatialIndex<TextElement> index;
+    private GlyphStore glyphs;
 
     private PageBuilder() {}
 
@@ -83,7 +84,19 @@ public class PageBuilder {
         return this;
     }
 
+    /**
+     * Takes the text elements from {@code glyphs} instead, and indexes them on first use.
+     */
+    PageBuilder withGlyphs(GlyphStore glyphs) {
+        this.glyphs = glyphs;
+
+        return this;
+    }
+
     public PageArea build() {
+        if (glyphs != null) {
+            return new PageArea(pageDims, rotation, number, pdPage, pdDocument, glyphs, rulings, minCharWidth, minCharHeight);
+        }
         return new PageArea(pageDims, rotation, number, pdPage, pdDocument, textElements, rulings, minCharWidth, minCharHeight, index);
     }
 }
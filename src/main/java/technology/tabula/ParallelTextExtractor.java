@@ -0,0 +1,202 @@
+package technology.tabula;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extracts pages on a pool of worker threads.
+ *
+ * PDFBox documents are not thread-safe, so every worker loads its own handle on the document
+ * through the given loader and keeps it until this extractor is closed. Results are handed back
+ * in the order of the requested pages, regardless of which worker finished first.
+ *
+ * Returned {@link PageArea}s reference the {@link org.apache.pdfbox.pdmodel.PDPage} of a worker's
+ * handle. Work that needs the underlying page (e.g. rendering it for table detection) should be
+ * done on the workers through {@link #extract(Iterable, PageProcessor)}.
+ */
+public class ParallelTextExtractor implements java.io.Closeable {
+
+    /**
+     * Work applied to every extracted page on the worker thread that extracted it.
+     */
+    public interface PageProcessor<T> {
+        T process(PageArea pageArea) throws IOException;
+    }
+
+    private final Callable<PDDocument> documentLoader;
+    private final int threads;
+    private final ExecutorService executor;
+
+    private final ThreadLocal<PDDocument> workerDocument = new ThreadLocal<>();
+    private final List<PDDocument> openDocuments = Collections.synchronizedList(new ArrayList<PDDocument>());
+
+    public ParallelTextExtractor(Callable<PDDocument> documentLoader, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.documentLoader = documentLoader;
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getNumberOfPages() throws IOException {
+        return waitFor(executor.submit(() -> getWorkerDocument().getNumberOfPages()));
+    }
+
+    public Iterator<PageArea> extract(Iterable<Integer> pages) {
+        return extract(pages, pageArea -> pageArea);
+    }
+
+    public Iterator<PageArea> extract() throws IOException {
+        return extract(Utils.range(1, getNumberOfPages() + 1));
+    }
+
+    /**
+     * Extracts the given pages concurrently and applies {@code processor} to each of them on
+     * the worker thread. At most two pages per worker are in flight ahead of the consumer.
+     *
+     * The returned iterator throws {@link UncheckedIOException} if a page could not be read.
+     */
+    public <T> Iterator<T> extract(Iterable<Integer> pages, PageProcessor<T> processor) {
+        return new OrderedResultIterator<>(pages.iterator(), processor, threads * 2);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        IOException closeException = null;
+        synchronized (openDocuments) {
+            for (PDDocument document : openDocuments) {
+                try {
+                    document.close();
+                } catch (IOException e) {
+                    closeException = e;
+                }
+            }
+            openDocuments.clear();
+        }
+        if (closeException != null) {
+            throw closeException;
+        }
+    }
+
+    private PDDocument getWorkerDocument() throws IOException {
+        PDDocument document = workerDocument.get();
+        if (document == null) {
+            try {
+                document = documentLoader.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            workerDocument.set(document);
+            openDocuments.add(document);
+        }
+        return document;
+    }
+
+    private static <T> T waitFor(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private class OrderedResultIterator<T> implements Iterator<T> {
+
+        private final Iterator<Integer> pageNumbers;
+        private final PageProcessor<T> processor;
+        private final int maxPending;
+        private final Deque<Future<T>> pending = new ArrayDeque<>();
+
+        OrderedResultIterator(Iterator<Integer> pageNumbers, PageProcessor<T> processor, int maxPending) {
+            this.pageNumbers = pageNumbers;
+            this.processor = processor;
+            this.maxPending = maxPending;
+            submitPending();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Future<T> head = pending.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            submitPending();
+            try {
+                return waitFor(head);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void submitPending() {
+            while (pending.size() < maxPending && pageNumbers.hasNext()) {
+                final Integer pageNumber = pageNumbers.next();
+                pending.add(executor.submit(() -> {
+                    TextExtractor extractor = new TextExtractor(getWorkerDocument());
+                    return processor.process(extractor.extractPage(pageNumber));
+                }));
+            }
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+        private final int poolNumber = POOL_NUMBER.getAndIncrement();
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "tabula-extractor-" + poolNumber + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
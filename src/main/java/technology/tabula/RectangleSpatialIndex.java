@@ -1,47 +1,417 @@
 package technology.tabula;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import org.locationtech.jts.geom.Envelope;
-import org.locationtech.jts.index.strtree.STRtree;
-
+/**
+ * Finds the rectangles that lie within, or intersect, an area.
+ *
+ * The rectangles are packed once, sort-tile-recursive style, into primitive arrays: entries sorted into vertical
+ * slices by x and within those by y, in nodes of {@link #NODE_CAPACITY} whose bounds are checked before their
+ * entries are. Packing happens on the first query, and again on the first query after more rectangles were added.
+ * It happens once even if several threads query a shared index at the same time, but adding is not thread-safe.
+ *
+ * Query results come in the order the rectangles were added in, so an index filled in reading order answers in
+ * reading order without sorting anything but positions.
+ */
 public class RectangleSpatialIndex<T extends Rectangle> {
-    
 
-    private final STRtree si = new STRtree();
-    private final List<T> rectangles = new ArrayList<>();
+    private static final int NODE_CAPACITY = 16;
+
+    private List<T> rectangles;
+    private int size;
+    // geometry, by position in rectangles
+    private float[] xs, ys, widths, heights;
+
+    // volatile, so that a thread finding the index packed also sees the arrays of that packing
+    private volatile boolean packed = false;
+    // positions, slice after slice
+    private int[] entries;
+    // minX, minY, maxX, maxY of each node and each slice
+    private double[] nodeBounds, sliceBounds;
+    // nodes of slice s are sliceNodes[s]..sliceNodes[s + 1]
+    private int[] sliceNodes;
+    // positions by top
+    private int[] byTop;
+
+    public RectangleSpatialIndex() {
+        this(new ArrayList<T>(), new float[NODE_CAPACITY], new float[NODE_CAPACITY], new float[NODE_CAPACITY], new float[NODE_CAPACITY], 0);
+    }
+
+    private RectangleSpatialIndex(List<T> rectangles, float[] xs, float[] ys, float[] widths, float[] heights, int size) {
+        this.rectangles = rectangles;
+        this.xs = xs;
+        this.ys = ys;
+        this.widths = widths;
+        this.heights = heights;
+        this.size = size;
+    }
+
+    static <T extends Rectangle> RectangleSpatialIndex<T> of(List<T> rectangles) {
+        RectangleSpatialIndex<T> index = new RectangleSpatialIndex<>();
+        for (T rectangle : rectangles) {
+            index.add(rectangle);
+        }
+        return index;
+    }
+
+    /**
+     * Indexes {@code rectangles} with the geometry given by the arrays, so that a lazily populated list is
+     * only read for query results.
+     */
+    static <T extends Rectangle> RectangleSpatialIndex<T> of(List<T> rectangles, float[] xs, float[] ys, float[] widths, float[] heights) {
+        return new RectangleSpatialIndex<>(rectangles, xs, ys, widths, heights, rectangles.size());
+    }
 
     public void add(T te) {
+        if (!(rectangles instanceof ArrayList)) {
+            rectangles = new ArrayList<>(rectangles);
+        }
+        if (size == xs.length) {
+            int capacity = Math.max(NODE_CAPACITY, size * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
         rectangles.add(te);
-        si.insert(new Envelope(te.getLeft(), te.getRight(), te.getBottom(), te.getTop()), te);
+        xs[size] = te.x;
+        ys[size] = te.y;
+        widths[size] = te.width;
+        heights[size] = te.height;
+        size++;
+        if (packed) {
+            packed = false;
+        }
     }
-    
+
+    /**
+     * The rectangles that lie within {@code r}, in the order they were added.
+     */
     public List<T> contains(Rectangle r) {
-        List<T> intersection = si.query(new Envelope(r.getLeft(), r.getRight(), r.getTop(), r.getBottom()));
-        List<T> rv = new ArrayList<T>();
+        pack();
+        return select(r, true);
+    }
+
+    /**
+     * The rectangles within each of {@code areas}, in the order they were added, for each area in turn.
+     *
+     * All areas are answered in one sweep down the page: rectangles by top, areas becoming active once the
+     * sweep reaches their top and dropped once it has passed their bottom. The active areas are kept by left
+     * edge, so a rectangle is only tested against the areas that start left of it.
+     */
+    public List<List<T>> contains(List<? extends Rectangle> areas) {
+        pack();
+        int areaCount = areas.size();
+
+        long[] areasByTop = new long[areaCount];
+        for (int a = 0; a < areaCount; a++) {
+            areasByTop[a] = sortKey(floatAtLeast(areas.get(a).getMinY()), a);
+        }
+        Arrays.sort(areasByTop);
 
-        for (T ir: intersection) {
-            if (r.contains(ir)) {
-                rv.add(ir);
+        int[][] hits = new int[areaCount][];
+        int[] hitCounts = new int[areaCount];
+        ActiveAreas active = new ActiveAreas(areas);
+        int nextArea = 0;
+        for (int k = 0; k < size; k++) {
+            int i = byTop[k];
+            float y = ys[i];
+            // a rectangle starting at y is within an area only if y >= its top, that is its top rounded up
+            while (nextArea < areaCount && y >= valueOf(areasByTop[nextArea])) {
+                active.add((int) areasByTop[nextArea++], y);
+            }
+            active.findContaining(xs[i], ys[i], widths[i], heights[i]);
+            for (int f = 0; f < active.foundCount; f++) {
+                int a = active.found[f];
+                if (hits[a] == null) {
+                    hits[a] = new int[NODE_CAPACITY];
+                } else if (hitCounts[a] == hits[a].length) {
+                    hits[a] = Arrays.copyOf(hits[a], hitCounts[a] * 2);
+                }
+                hits[a][hitCounts[a]++] = i;
             }
         }
 
-        Utils.sort(rv, Rectangle.ILL_DEFINED_ORDER);
+        List<List<T>> rv = new ArrayList<>(areaCount);
+        for (int a = 0; a < areaCount; a++) {
+            List<T> areaHits = new ArrayList<>(hitCounts[a]);
+            if (hits[a] != null) {
+                Arrays.sort(hits[a], 0, hitCounts[a]);
+                for (int k = 0; k < hitCounts[a]; k++) {
+                    areaHits.add(rectangles.get(hits[a][k]));
+                }
+            }
+            rv.add(areaHits);
+        }
         return rv;
     }
-    
+
+    /**
+     * The rectangles whose bounds touch those of {@code r}, in the order they were added.
+     */
     public List<T> intersects(Rectangle r) {
-      return si.query(new Envelope(r.getLeft(), r.getRight(), r.getTop(), r.getBottom()));
+        pack();
+        return select(r, false);
     }
-    
+
     /**
      * Minimum bounding box of all the Rectangles contained on this RectangleSpatialIndex
-     * 
+     *
      * @return a Rectangle
      */
     public Rectangle getBounds() {
-        return Rectangle.boundingBoxOf(rectangles);
+        // the same as Rectangle.boundingBoxOf(rectangles)
+        float minx = Float.MAX_VALUE;
+        float miny = Float.MAX_VALUE;
+        float maxx = Float.MIN_VALUE;
+        float maxy = Float.MIN_VALUE;
+
+        for (int i = 0; i < size; i++) {
+            minx = Math.min(xs[i], minx);
+            miny = Math.min(ys[i], miny);
+            maxx = (float) Math.max((double) xs[i] + widths[i], maxx);
+            maxy = (float) Math.max((double) ys[i] + heights[i], maxy);
+        }
+        return new Rectangle(miny, minx, maxx - minx, maxy - miny);
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
+
+    private List<T> select(Rectangle r, boolean containedOnly) {
+        // Rectangle2D.contains() works on the double bounds, intersection on the float ones
+        double minX = containedOnly ? r.getMinX() : Math.min(r.getLeft(), r.getRight());
+        double maxX = containedOnly ? r.getMaxX() : Math.max(r.getLeft(), r.getRight());
+        double minY = containedOnly ? r.getMinY() : Math.min(r.getTop(), r.getBottom());
+        double maxY = containedOnly ? r.getMaxY() : Math.max(r.getTop(), r.getBottom());
+
+        int[] hits = new int[NODE_CAPACITY];
+        int hitCount = 0;
+        for (int slice = 0; slice + 1 < sliceNodes.length; slice++) {
+            if (!overlaps(sliceBounds, slice, minX, minY, maxX, maxY)) {
+                continue;
+            }
+            for (int node = sliceNodes[slice]; node < sliceNodes[slice + 1]; node++) {
+                if (!overlaps(nodeBounds, node, minX, minY, maxX, maxY)) {
+                    continue;
+                }
+                int end = Math.min(size, (node + 1) * NODE_CAPACITY);
+                for (int e = node * NODE_CAPACITY; e < end; e++) {
+                    int i = entries[e];
+                    boolean hit = containedOnly ?
+                            r.contains(xs[i], ys[i], widths[i], heights[i]) :
+                            envelopesIntersect(i, minX, minY, maxX, maxY);
+                    if (hit) {
+                        if (hitCount == hits.length) {
+                            hits = Arrays.copyOf(hits, hitCount * 2);
+                        }
+                        hits[hitCount++] = i;
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(hits, 0, hitCount);
+        List<T> rv = new ArrayList<>(hitCount);
+        for (int k = 0; k < hitCount; k++) {
+            rv.add(rectangles.get(hits[k]));
+        }
+        return rv;
+    }
+
+    private static boolean overlaps(double[] bounds, int i, double minX, double minY, double maxX, double maxY) {
+        return bounds[4 * i] <= maxX && bounds[4 * i + 2] >= minX
+                && bounds[4 * i + 1] <= maxY && bounds[4 * i + 3] >= minY;
+    }
+
+    private boolean envelopesIntersect(int i, double minX, double minY, double maxX, double maxY) {
+        // the envelope of getLeft(), getRight(), getTop() and getBottom()
+        float left = xs[i], right = (float) ((double) xs[i] + widths[i]);
+        float top = ys[i], bottom = (float) ((double) ys[i] + heights[i]);
+        return Math.min(left, right) <= maxX && Math.max(left, right) >= minX
+                && Math.min(top, bottom) <= maxY && Math.max(top, bottom) >= minY;
+    }
+
+    private void pack() {
+        if (!packed) {
+            packOnce();
+        }
+    }
+
+    private synchronized void packOnce() {
+        if (packed) {
+            return;
+        }
+
+        int nodeCount = (size + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = Math.max(1, (int) Math.ceil(Math.sqrt(nodeCount)));
+        int nodesPerSlice = Math.max(1, (nodeCount + sliceCount - 1) / sliceCount);
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = sortKey((float) ((double) xs[i] + widths[i] / 2.0), i);
+        }
+        Arrays.sort(keys);
+
+        entries = new int[size];
+        nodeBounds = new double[4 * nodeCount];
+        List<Integer> sliceStarts = new ArrayList<>();
+        for (int start = 0; start < size; start += nodesPerSlice * NODE_CAPACITY) {
+            int end = Math.min(size, start + nodesPerSlice * NODE_CAPACITY);
+            for (int k = start; k < end; k++) {
+                int i = (int) keys[k];
+                keys[k] = sortKey((float) ((double) ys[i] + heights[i] / 2.0), i);
+            }
+            Arrays.sort(keys, start, end);
+            for (int k = start; k < end; k++) {
+                entries[k] = (int) keys[k];
+            }
+            sliceStarts.add(start / NODE_CAPACITY);
+        }
+        sliceStarts.add(nodeCount);
+
+        for (int node = 0; node < nodeCount; node++) {
+            Arrays.fill(nodeBounds, 4 * node, 4 * node + 2, java.lang.Double.POSITIVE_INFINITY);
+            Arrays.fill(nodeBounds, 4 * node + 2, 4 * node + 4, java.lang.Double.NEGATIVE_INFINITY);
+            int end = Math.min(size, (node + 1) * NODE_CAPACITY);
+            for (int e = node * NODE_CAPACITY; e < end; e++) {
+                int i = entries[e];
+                // covers both the double bounds and the float envelope of the entry
+                double right = (double) xs[i] + widths[i], bottom = (double) ys[i] + heights[i];
+                include(nodeBounds, node, Math.min(xs[i], right), Math.min(ys[i], bottom),
+                        Math.max(Math.max(xs[i], right), (float) right), Math.max(Math.max(ys[i], bottom), (float) bottom));
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = sortKey(ys[i], i);
+        }
+        Arrays.sort(keys);
+        byTop = new int[size];
+        for (int k = 0; k < size; k++) {
+            byTop[k] = (int) keys[k];
+        }
+
+        sliceNodes = new int[sliceStarts.size()];
+        sliceBounds = new double[4 * (sliceNodes.length - 1)];
+        for (int s = 0; s < sliceNodes.length; s++) {
+            sliceNodes[s] = sliceStarts.get(s);
+        }
+        for (int s = 0; s + 1 < sliceNodes.length; s++) {
+            Arrays.fill(sliceBounds, 4 * s, 4 * s + 2, java.lang.Double.POSITIVE_INFINITY);
+            Arrays.fill(sliceBounds, 4 * s + 2, 4 * s + 4, java.lang.Double.NEGATIVE_INFINITY);
+            for (int node = sliceNodes[s]; node < sliceNodes[s + 1]; node++) {
+                include(sliceBounds, s, nodeBounds[4 * node], nodeBounds[4 * node + 1], nodeBounds[4 * node + 2], nodeBounds[4 * node + 3]);
+            }
+        }
+        packed = true;
+    }
+
+    private static void include(double[] bounds, int i, double minX, double minY, double maxX, double maxY) {
+        bounds[4 * i] = Math.min(bounds[4 * i], minX);
+        bounds[4 * i + 1] = Math.min(bounds[4 * i + 1], minY);
+        bounds[4 * i + 2] = Math.max(bounds[4 * i + 2], maxX);
+        bounds[4 * i + 3] = Math.max(bounds[4 * i + 3], maxY);
+    }
+
+    // orders by value, then by position
+    private static long sortKey(float value, int position) {
+        int bits = Float.floatToIntBits(value);
+        return ((long) (bits ^ ((bits >> 31) & 0x7fffffff)) << 32) | position;
+    }
+
+    private static float valueOf(long sortKey) {
+        int bits = (int) (sortKey >> 32);
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+    }
+
+    // the smallest float not below value
+    private static float floatAtLeast(double value) {
+        float f = (float) value;
+        return f < value ? Math.nextUp(f) : f;
+    }
+
+    /**
+     * The areas a sweep is within, by left edge, with the rightmost right edge of each prefix so that a
+     * lookup can stop at the first prefix that ends left of the rectangle.
+     */
+    private static final class ActiveAreas {
+        private final List<? extends Rectangle> areas;
+        private int[] ids = new int[NODE_CAPACITY];
+        private int count = 0;
+        // left edges rounded up to float, like the top edges of the sweep
+        private float[] lefts = new float[0];
+        private double[] maxRights = new double[0];
+        private boolean sorted = true;
+        private float sweepY;
+
+        // areas found by the last lookup
+        int[] found = new int[NODE_CAPACITY];
+        int foundCount;
+
+        ActiveAreas(List<? extends Rectangle> areas) {
+            this.areas = areas;
+        }
+
+        void add(int area, float y) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = area;
+            sorted = false;
+            sweepY = y;
+        }
+
+        void findContaining(float x, float y, float width, float height) {
+            if (!sorted) {
+                sort();
+            }
+            foundCount = 0;
+            double right = (double) x + width;
+            // past the last area whose left is not right of x
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (lefts[mid] <= x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int k = lo - 1; k >= 0 && maxRights[k] >= right; k--) {
+                if (areas.get(ids[k]).contains(x, y, width, height)) {
+                    if (foundCount == found.length) {
+                        found = Arrays.copyOf(found, foundCount * 2);
+                    }
+                    found[foundCount++] = ids[k];
+                }
+            }
+        }
+
+        // drops the areas the sweep has passed and those that contain nothing, orders the others by left
+        private void sort() {
+            long[] keys = new long[count];
+            int kept = 0;
+            for (int k = 0; k < count; k++) {
+                Rectangle area = areas.get(ids[k]);
+                if (area.getWidth() > 0 && area.getHeight() > 0 && !(area.getMaxY() < sweepY)) {
+                    keys[kept++] = sortKey(floatAtLeast(area.getMinX()), ids[k]);
+                }
+            }
+            Arrays.sort(keys, 0, kept);
+
+            count = kept;
+            lefts = new float[kept];
+            maxRights = new double[kept];
+            for (int k = 0; k < kept; k++) {
+                ids[k] = (int) keys[k];
+                lefts[k] = valueOf(keys[k]);
+                double right = areas.get(ids[k]).getMaxX();
+                maxRights[k] = k == 0 ? right : Math.max(maxRights[k - 1], right);
+            }
+            sorted = true;
+        }
     }
 
 }
@@ -4,6 +4,7 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Formatter;
@@ -184,7 +185,8 @@ public class Ruling extends Line2D.Float {
             return new Ruling(clipee.getP1(), clipee.getP2());
         }
         else {
-            return this;
+            // a copy all the same, cropped rulings get snapped without touching those they were cropped from
+            return (Ruling) this.clone();
         }
     }
     
@@ -196,8 +198,11 @@ public class Ruling extends Line2D.Float {
     }
     
     public Point2D intersectionPoint(Ruling other) {
-        Ruling this_l = this.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT);
-        Ruling other_l = other.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT);
+        return expandedIntersectionPoint(this.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT),
+                other.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT));
+    }
+
+    private static Point2D expandedIntersectionPoint(Ruling this_l, Ruling other_l) {
         Ruling horizontal, vertical;
         
         if (!this_l.intersectsLine(other_l)) {
@@ -307,21 +312,28 @@ public class Ruling extends Line2D.Float {
             protected SOType type;
             protected float position;
             protected Ruling ruling;
+            protected Ruling expanded;
             
             public SortObject(SOType type, float position, Ruling ruling) {
                 this.type = type;
                 this.position = position;
                 this.ruling = ruling;
             }
+
+            // expanded at most once per ruling; every intersection found on it shares the copy
+            public Ruling expanded() {
+                if (expanded == null) {
+                    expanded = ruling.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT);
+                }
+                return expanded;
+            }
         }
         
         List<SortObject> sos = new ArrayList<>();
         
-        TreeMap<Ruling, Boolean> tree = new TreeMap<>(new Comparator<Ruling>() {
-            @Override
-            public int compare(Ruling o1, Ruling o2) {
-                return java.lang.Double.compare(o1.getTop(), o2.getTop());
-            }});
+        // active horizontals by top. As before, of several active horizontals sharing a top only the
+        // first one is kept, and the end of any of them removes it.
+        TreeMap<java.lang.Float, SortObject> tree = new TreeMap<>();
         
         TreeMap<Point2D, Ruling[]> rv = new TreeMap<>(new Comparator<Point2D>() {
             @Override
@@ -334,9 +346,13 @@ public class Ruling extends Line2D.Float {
             }
         });
         
+        // how far from its top a horizontal can be hit; a vertical only has to look at the tops within
+        // its own expanded y-range widened by this. Anything not quite horizontal is looked at every time.
+        float reach = 0;
         for (Ruling h : horizontals) {
             sos.add(new SortObject(SOType.HLEFT, h.getLeft() - PERPENDICULAR_PIXEL_EXPAND_AMOUNT, h));
             sos.add(new SortObject(SOType.HRIGHT, h.getRight() + PERPENDICULAR_PIXEL_EXPAND_AMOUNT, h));
+            reach = Math.max(reach, h.horizontal() ? Math.abs(h.getBottom() - h.getTop()) : java.lang.Float.POSITIVE_INFINITY);
         }
 
         for (Ruling v : verticals) {
@@ -374,21 +390,29 @@ public class Ruling extends Line2D.Float {
         for (SortObject so : sos) {
             switch(so.type) {
             case VERTICAL:
-                for (Map.Entry<Ruling, Boolean> h : tree.entrySet()) {
-                    Point2D i = h.getKey().intersectionPoint(so.ruling);
+                if (tree.isEmpty()) {
+                    break;
+                }
+                Ruling v = so.expanded();
+                // one point of slack on top of the reach covers float rounding
+                double from = Math.min(v.getTop(), v.getBottom()) - reach - 1;
+                double to = Math.max(v.getTop(), v.getBottom()) + reach + 1;
+                Collection<SortObject> candidates = reach == java.lang.Float.POSITIVE_INFINITY ?
+                        tree.values() :
+                        tree.subMap((float) from, true, (float) to, true).values();
+                for (SortObject h : candidates) {
+                    Point2D i = expandedIntersectionPoint(h.expanded(), v);
                     if (i == null) {
                         continue;
                     }
-                    rv.put(i, 
-                           new Ruling[] { h.getKey().expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT), 
-                                          so.ruling.expand(PERPENDICULAR_PIXEL_EXPAND_AMOUNT) });
+                    rv.put(i, new Ruling[] { h.expanded(), v });
                 }
                 break;
             case HRIGHT:
-                tree.remove(so.ruling);
+                tree.remove(so.ruling.getTop());
                 break;
             case HLEFT:
-                tree.put(so.ruling, true);
+                tree.putIfAbsent(so.ruling.getTop(), so);
                 break;
             }
         }
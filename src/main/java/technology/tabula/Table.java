@@ -1,8 +1,11 @@
 package technology.tabula;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.TreeMap;
+import java.util.RandomAccess;
 
 import technology.tabula.extractors.ExtractionAlgorithm;
 
@@ -24,7 +27,7 @@ public class Table extends Rectangle {
 	private int rowCount = 0;
 	private int colCount = 0;
 
-	/* visible for testing */ final TreeMap<CellPosition, RectangularTextContainer> cells = new TreeMap<>();
+	/* visible for testing */ final CellStore cells = new CellStore();
 
 	public int getRowCount() { return rowCount; }
 	public int getColCount() { return colCount; }
@@ -32,71 +35,109 @@ public class Table extends Rectangle {
 	public String getExtractionMethod() { return extractionMethod; }
 
 	public void add(RectangularTextContainer chunk, int row, int col) {
+		if (row < 0 || col < 0) {
+			throw new IllegalArgumentException("row and col can't be less than 0");
+		}
+
 		this.merge(chunk);
 		
 		rowCount = Math.max(rowCount, row + 1);
 		colCount = Math.max(colCount, col + 1);
 		
-		CellPosition cp = new CellPosition(row, col);
-		
-		RectangularTextContainer old = cells.get(cp);
+		RectangularTextContainer old = cells.get(row, col);
 		if (old != null) chunk.merge(old);
-		cells.put(cp, chunk);
-
-		this.memoizedRows = null;
+		cells.put(row, col, chunk);
 	}
 
-	private List<List<RectangularTextContainer>> memoizedRows = null;
+	private final List<List<RectangularTextContainer>> rows = new Rows();
 
+	/**
+	 * The rows of the table, each {@link #getColCount()} cells long, with {@link TextChunk#EMPTY} where there is no
+	 * cell. This is a read-only view, rows and cells are looked up as they are read.
+	 *
+	 * Changing the rows or a row throws {@link UnsupportedOperationException}; copy them to change them. Cells
+	 * added to the table later show up in the view, and each {@code get} of a row returns a new, equal row.
+	 */
 	public List<List<RectangularTextContainer>> getRows() {
-		if (this.memoizedRows == null) this.memoizedRows = computeRows();
-		return this.memoizedRows;
-	}
-
-	private List<List<RectangularTextContainer>> computeRows() {
-		List<List<RectangularTextContainer>> rows = new ArrayList<>();
-		for (int i = 0; i < rowCount; i++) {
-			List<RectangularTextContainer> lastRow = new ArrayList<>();
-			rows.add(lastRow);
-			for (int j = 0; j < colCount; j++) {
-				RectangularTextContainer cell = cells.get(new CellPosition(i,j)); // JAVA_8 use getOrDefault()
-				lastRow.add(cell != null ? cell : TextChunk.EMPTY);
-			}
-		}
 		return rows;
 	}
 	
 	public RectangularTextContainer getCell(int i, int j) {
-		RectangularTextContainer cell = cells.get(new CellPosition(i,j)); // JAVA_8 use getOrDefault()
+		RectangularTextContainer cell = cells.get(i, j);
 		return cell != null ? cell : TextChunk.EMPTY;
 	}
 
-}
+	private class Rows extends AbstractList<List<RectangularTextContainer>> implements RandomAccess {
+		@Override public List<RectangularTextContainer> get(int i) {
+			if (i < 0 || i >= rowCount) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + rowCount);
+			return new Row(i);
+		}
+
+		@Override public int size() {
+			return rowCount;
+		}
+	}
 
-class CellPosition implements Comparable<CellPosition> {
+	private class Row extends AbstractList<RectangularTextContainer> implements RandomAccess {
+		private final int i;
 
-	CellPosition(int row, int col) {
-		this.row = row;
-		this.col = col;
+		Row(int i) {
+			this.i = i;
+		}
+
+		@Override public RectangularTextContainer get(int j) {
+			if (j < 0 || j >= colCount) throw new IndexOutOfBoundsException("Index: " + j + ", Size: " + colCount);
+			return getCell(i, j);
+		}
+
+		@Override public int size() {
+			return colCount;
+		}
 	}
 
-	final int row, col;
+}
+
+/**
+ * The cells of a {@link Table} in one array per row, each as long as the row's last cell requires. Rows
+ * without cells take no space.
+ */
+final class CellStore {
+
+	private RectangularTextContainer[][] rows = new RectangularTextContainer[0][];
+	private int size = 0;
 
-	@Override public int hashCode() {
-		return row + 101 * col;
+	RectangularTextContainer get(int row, int col) {
+		if (row < 0 || row >= rows.length || rows[row] == null) return null;
+		RectangularTextContainer[] cells = rows[row];
+		return col >= 0 && col < cells.length ? cells[col] : null;
 	}
 
-	@Override public boolean equals(Object obj) {
-		if (this == obj) return true;
-		if (obj == null) return false;
-		if (getClass() != obj.getClass()) return false;
-		CellPosition other = (CellPosition) obj;
-		return row == other.row && col == other.col;
+	void put(int row, int col, RectangularTextContainer cell) {
+		if (row >= rows.length) {
+			rows = Arrays.copyOf(rows, Math.max(row + 1, rows.length * 2));
+		}
+		RectangularTextContainer[] cells = rows[row];
+		if (cells == null) {
+			cells = rows[row] = new RectangularTextContainer[Math.max(col + 1, 4)];
+		} else if (col >= cells.length) {
+			cells = rows[row] = Arrays.copyOf(cells, Math.max(col + 1, cells.length * 2));
+		}
+		if (cells[col] == null) size++;
+		cells[col] = cell;
 	}
 
-	@Override public int compareTo(CellPosition other) {
-		int rowdiff = row - other.row;
-		return rowdiff != 0 ? rowdiff : col - other.col;
+	/**
+	 * The cells row by row, left to right.
+	 */
+	Collection<RectangularTextContainer> values() {
+		List<RectangularTextContainer> values = new ArrayList<>(size);
+		for (RectangularTextContainer[] cells : rows) {
+			if (cells == null) continue;
+			for (RectangularTextContainer cell : cells) {
+				if (cell != null) values.add(cell);
+			}
+		}
+		return values;
 	}
 
 }
@@ -1,6 +1,7 @@
 package technology.tabula;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -31,28 +32,103 @@ public class TableWithRulingLines extends Table {
         for (Cell ce: cells) {
             si.add(ce);
         }
+        Rectangle bounds = si.getBounds();
+        
+        Collections.sort(cells, new Comparator<Cell>() {
+            @Override
+            public int compare(Cell arg0, Cell arg1) {
+                return java.lang.Double.compare(arg0.getTop(), arg1.getTop());
+            }
+        });
+        
+        // positions in cells, by right edge
+        Integer[] byRight = new Integer[cells.size()];
+        for (int k = 0; k < byRight.length; k++) {
+            byRight[k] = k;
+        }
+        Arrays.sort(byRight, (k1, k2) -> java.lang.Double.compare(cells.get(k1).getMaxX(), cells.get(k2).getMaxX()));
         
         List<List<Cell>> rowsOfCells = rowsOfCells(cells);
         for (int i = 0; i < rowsOfCells.size(); i++) {
             List<Cell> row = rowsOfCells.get(i);
             Iterator<Cell> rowCells = row.iterator();
             Cell cell = rowCells.next();
-            List<List<Cell>> others = rowsOfCells(
-                    si.contains(
-                            new Rectangle(cell.getBottom(), si.getBounds().getLeft(), cell.getLeft() - si.getBounds().getLeft(), 
-                                    si.getBounds().getBottom() - cell.getBottom())
-                            ));
-            int startColumn = 0;
-            for (List<Cell> r: others) {
-                startColumn = Math.max(startColumn, r.size());
-            }
+            // the row starts right of the widest row of the cells below and left of it
+            Rectangle belowLeft = new Rectangle(cell.getBottom(), bounds.getLeft(), cell.getLeft() - bounds.getLeft(),
+                    bounds.getBottom() - cell.getBottom());
+            int startColumn = widestRow(cells, byRight, belowLeft);
             this.add(cell, i, startColumn++);
             while (rowCells.hasNext()) {
                 this.add(rowCells.next(), i, startColumn++);
             }
         }
     }
+
+    /**
+     * The size of the largest of the {@link #rowsOfCells(List)} of the cells within {@code area}. Only the
+     * cells below its top, or those ending left of its right, whichever are fewer, are looked at.
+     */
+    private static int widestRow(List<Cell> cellsByTop, Integer[] byRight, Rectangle area) {
+        int n = cellsByTop.size();
+        // the first cell that doesn't start above the area
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cellsByTop.get(mid).getTop() < area.getMinY()) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int firstBelow = lo;
+        // the number of cells that don't end right of the area
+        lo = 0;
+        hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cellsByTop.get(byRight[mid]).getMaxX() <= area.getMaxX()) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int leftOfCount = lo;
+
+        int[] candidates;
+        int candidateCount = 0;
+        if (leftOfCount < n - firstBelow) {
+            candidates = new int[leftOfCount];
+            for (int k = 0; k < leftOfCount; k++) {
+                if (byRight[k] >= firstBelow) {
+                    candidates[candidateCount++] = byRight[k];
+                }
+            }
+            Arrays.sort(candidates, 0, candidateCount);
+        } else {
+            candidates = new int[n - firstBelow];
+            for (int k = firstBelow; k < n; k++) {
+                candidates[candidateCount++] = k;
+            }
+        }
+
+        int widest = 0, rowSize = 0;
+        float lastTop = 0;
+        for (int k = 0; k < candidateCount; k++) {
+            Cell c = cellsByTop.get(candidates[k]);
+            if (!area.contains(c)) {
+                continue;
+            }
+            if (rowSize > 0 && !Utils.feq(c.getTop(), lastTop)) {
+                rowSize = 0;
+            }
+            rowSize++;
+            widest = Math.max(widest, rowSize);
+            lastTop = c.getTop();
+        }
+        return widest;
+    }
     
+    // cells must be sorted by top
     private static List<List<Cell>> rowsOfCells(List<Cell> cells) {
         Cell c;
         float lastTop;
@@ -63,14 +139,6 @@ public class TableWithRulingLines extends Table {
             return rv;
         }
         
-        Collections.sort(cells, new Comparator<Cell>() {
-            @Override
-            public int compare(Cell arg0, Cell arg1) {
-                return java.lang.Double.compare(arg0.getTop(), arg1.getTop());
-            }
-        });
-        
-        
         Iterator<Cell> iter = cells.iterator();
         c = iter.next();
         lastTop = c.getTop();
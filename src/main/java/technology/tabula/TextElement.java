@@ -1,9 +1,11 @@
 package technology.tabula;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.pdfbox.pdmodel.font.PDFont;
+import technology.tabula.metrics.Metrics;
 
 @SuppressWarnings("serial")
 public class TextElement extends Rectangle implements HasText {
@@ -115,6 +117,12 @@ public class TextElement extends Rectangle implements HasText {
      * Here be dragons
      */
     public static List<TextChunk> mergeWords(List<TextElement> textElements, List<Ruling> verticalRulings) {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.MERGE_WORDS)) {
+            return doMergeWords(textElements, verticalRulings);
+        }
+    }
+
+    private static List<TextChunk> doMergeWords(List<TextElement> textElements, List<Ruling> verticalRulings) {
 
         List<TextChunk> textChunks = new ArrayList<>();
 
@@ -141,6 +149,7 @@ public class TextElement extends Rectangle implements HasText {
         TextElement sp, prevChar;
         TextChunk currentChunk;
         boolean sameLine, acrossVerticalRuling;
+        VerticalRulings rulings = new VerticalRulings(verticalRulings);
 
         for (TextElement chr : copyOfTextElements) {
             currentChunk = textChunks.get(textChunks.size() - 1);
@@ -152,7 +161,7 @@ public class TextElement extends Rectangle implements HasText {
             }
 
             // if chr is a space that overlaps with prevChar, skip
-            if (chr.getText().equals(" ") && Utils.feq(prevChar.getLeft(), chr.getLeft()) && Utils.feq(prevChar.getTop(), chr.getTop())) {
+            if (isSpace(chr.getText()) && Utils.feq(prevChar.getLeft(), chr.getLeft()) && Utils.feq(prevChar.getTop(), chr.getTop())) {
                 continue;
             }
 
@@ -163,16 +172,7 @@ public class TextElement extends Rectangle implements HasText {
             }
 
             // is there any vertical ruling that goes across chr and prevChar?
-            acrossVerticalRuling = false;
-            for (Ruling r : verticalRulings) {
-                if (
-                        (verticallyOverlapsRuling(prevChar, r) && verticallyOverlapsRuling(chr, r)) &&
-                                (prevChar.x < r.getPosition() && chr.x > r.getPosition()) || (prevChar.x > r.getPosition() && chr.x < r.getPosition())
-                        ) {
-                    acrossVerticalRuling = true;
-                    break;
-                }
-            }
+            acrossVerticalRuling = rulings.across(prevChar, chr);
 
             // Estimate the expected width of the space based on the
             // space character with some margin.
@@ -223,7 +223,7 @@ public class TextElement extends Rectangle implements HasText {
             if (!acrossVerticalRuling &&
                     sameLine &&
                     expectedStartOfNextWordX < chr.getLeft() &&
-                    !prevChar.getText().endsWith(" ")) {
+                    !endsWithSpace(prevChar.getText())) {
 
                 sp = new TextElement(prevChar.getTop(),
                         prevChar.getLeft(),
@@ -274,4 +274,93 @@ public class TextElement extends Rectangle implements HasText {
         return Math.max(0, Math.min(te.getBottom(), r.getY2()) - Math.max(te.getTop(), r.getY1())) > 0;
     }
 
+    private static boolean isSpace(String text) {
+        return text.length() == 1 && text.charAt(0) == ' ';
+    }
+
+    private static boolean endsWithSpace(String text) {
+        return !text.isEmpty() && text.charAt(text.length() - 1) == ' ';
+    }
+
+    /**
+     * The vertical rulings of {@link #mergeWords(List, List)} by position, sorted when first needed, so that
+     * finding those between two characters is a binary search.
+     */
+    private static final class VerticalRulings {
+        private final List<Ruling> unsorted;
+        private Ruling[] rulings;
+        private float[] positions;
+        // rulings at NaN positions are between nothing, they go last and are left out
+        private int count;
+
+        VerticalRulings(List<Ruling> unsorted) {
+            this.unsorted = unsorted;
+        }
+
+        /**
+         * Whether a ruling goes between the two characters. Left to right, that ruling must also overlap both
+         * of them vertically; right to left, any ruling between them counts.
+         */
+        boolean across(TextElement prevChar, TextElement chr) {
+            if (unsorted.isEmpty()) {
+                return false;
+            }
+            if (rulings == null) {
+                sort();
+            }
+            if (prevChar.x > chr.x) {
+                // anything strictly between
+                int from = firstAfter(chr.x);
+                return from < count && positions[from] < prevChar.x;
+            }
+            if (!(prevChar.x < chr.x)) {
+                return false;
+            }
+            for (int k = firstAfter(prevChar.x); k < count && positions[k] < chr.x; k++) {
+                if (verticallyOverlapsRuling(prevChar, rulings[k]) && verticallyOverlapsRuling(chr, rulings[k])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // the first ruling whose position is greater than x
+        private int firstAfter(float x) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (positions[mid] <= x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private void sort() {
+            Ruling[] sorted = unsorted.toArray(new Ruling[0]);
+            float[] keys = new float[sorted.length];
+            for (int k = 0; k < sorted.length; k++) {
+                keys[k] = sorted[k].getPosition();
+            }
+            Integer[] order = new Integer[sorted.length];
+            for (int k = 0; k < order.length; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, (k1, k2) -> java.lang.Float.compare(keys[k1], keys[k2]));
+
+            rulings = new Ruling[sorted.length];
+            positions = new float[sorted.length];
+            count = 0;
+            for (int k = 0; k < order.length; k++) {
+                rulings[k] = sorted[order[k]];
+                positions[k] = keys[order[k]];
+                if (!java.lang.Float.isNaN(positions[k])) {
+                    count = k + 1;
+                }
+            }
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package technology.tabula;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
+import technology.tabula.metrics.Metrics;
 
 import java.io.IOException;
 
@@ -19,13 +20,15 @@ public class TextExtractor implements java.io.Closeable {
         }
         PDPage page = pdfDocument.getPage(pageNumber - 1);
 
-        ObjectExtractorStreamEngine streamEngine = new ObjectExtractorStreamEngine(page);
-        streamEngine.processPage(page);
-
-        TextStripper textStripper = new TextStripper(pdfDocument, pageNumber);
-        textStripper.process();
-
-        Utils.sort(textStripper.getTextElements(), Rectangle.ILL_DEFINED_ORDER);
+        // rulings and text elements are collected in a single pass over the content stream
+        ObjectExtractorStreamEngine streamEngine = new ObjectExtractorStreamEngine(pdfDocument, page, pageNumber);
+        GlyphStore glyphs = streamEngine.getGlyphs();
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.PARSE, pageNumber)) {
+            streamEngine.process();
+            glyphs.sortInReadingOrder();
+        }
+        Metrics.count(Metrics.Counter.GLYPHS, pageNumber, glyphs.size());
+        Metrics.count(Metrics.Counter.RULINGS, pageNumber, streamEngine.rulings.size());
 
         float width, height;
         int rotation = page.getRotation();
@@ -44,10 +47,9 @@ public class TextExtractor implements java.io.Closeable {
                 .withPdPage(page)
                 .withPdDocument(pdfDocument)
                 .withRulings(streamEngine.rulings)
-                .withTextElements(textStripper.getTextElements())
-                .withMinCharWidth(textStripper.getMinCharWidth())
-                .withMinCharHeight(textStripper.getMinCharHeight())
-                .withIndex(textStripper.getSpatialIndex())
+                .withGlyphs(glyphs)
+                .withMinCharWidth(streamEngine.getMinCharWidth())
+                .withMinCharHeight(streamEngine.getMinCharHeight())
                 .build();
     }
 
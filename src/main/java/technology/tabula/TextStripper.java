@@ -9,7 +9,6 @@ import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.text.TextPosition;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 public class TextStripper extends PDFTextStripper {
@@ -19,8 +18,8 @@ public class TextStripper extends PDFTextStripper {
     private static final float MAX_BLANK_FONT_SIZE = 40.0f;
     private static final float MIN_BLANK_FONT_SIZE = 2.0f;
     private final PDDocument document;
-    private final ArrayList<TextElement> textElements;
-    private final RectangleSpatialIndex<TextElement> spatialIndex;
+    private final GlyphStore glyphs;
+    private RectangleSpatialIndex<TextElement> spatialIndex;
     private float minCharWidth = Float.MAX_VALUE;
     private float minCharHeight = Float.MAX_VALUE;
     private float totalHeight = 0.0f;
@@ -31,8 +30,7 @@ public class TextStripper extends PDFTextStripper {
         this.document = document;
         this.setStartPage(pageNumber);
         this.setEndPage(pageNumber);
-        this.textElements = new ArrayList<>();
-        this.spatialIndex = new RectangleSpatialIndex<>();
+        this.glyphs = new GlyphStore();
     }
 
     public void process() throws IOException {
@@ -63,26 +61,22 @@ public class TextStripper extends PDFTextStripper {
 
             float wos = textPosition.getWidthOfSpace();
 
-            TextElement te = new TextElement(Utils.round(textPosition.getYDirAdj() - h, 2),
-                    Utils.round(textPosition.getXDirAdj(), 2), Utils.round(textPosition.getWidthDirAdj(), 2),
-                    Utils.round(textPosition.getHeightDir(), 2), textPosition.getFont(), textPosition.getFontSizeInPt(), c,
-                    // workaround a possible bug in PDFBox:
-                    // https://issues.apache.org/jira/browse/PDFBOX-1755
-                    wos, textPosition.getDir());
+            float width = FixedPoint.round(textPosition.getWidthDirAdj());
+            float height = FixedPoint.round(textPosition.getHeightDir());
 
-            this.minCharWidth = (float) Math.min(this.minCharWidth, te.getWidth());
-            this.minCharHeight = (float) Math.min(this.minCharHeight, te.getHeight());
+            this.minCharWidth = Math.min(this.minCharWidth, width);
+            this.minCharHeight = Math.min(this.minCharHeight, height);
 
             countHeight++;
-            totalHeight += te.getHeight();
+            totalHeight += height;
             float avgHeight = totalHeight / countHeight;
             
             //We have an issue where tall blank cells throw off the row height calculation
             //Introspect a blank cell a bit here to see if it should be thrown away
-            if ((te.getText() == null || te.getText().trim().equals(""))) {
+            if (c.trim().equals("")) {
                 //if the cell height is more than AVG_HEIGHT_MULT_THRESHOLDxaverage, throw it away
                 if (avgHeight > 0
-                        && te.getHeight() >= (avgHeight * AVG_HEIGHT_MULT_THRESHOLD)) {
+                        && height >= (avgHeight * AVG_HEIGHT_MULT_THRESHOLD)) {
                     continue;
                 }
                 
@@ -92,8 +86,11 @@ public class TextStripper extends PDFTextStripper {
                 }
             }
             
-            this.spatialIndex.add(te);
-            this.textElements.add(te);
+            this.glyphs.add(FixedPoint.round(textPosition.getYDirAdj() - h), FixedPoint.round(textPosition.getXDirAdj()),
+                    width, height, textPosition.getFont(), textPosition.getFontSizeInPt(), c,
+                    // workaround a possible bug in PDFBox:
+                    // https://issues.apache.org/jira/browse/PDFBOX-1755
+                    wos, textPosition.getDir());
         }
     }
 
@@ -157,11 +154,24 @@ public class TextStripper extends PDFTextStripper {
         return printable;
     }
 
+    GlyphStore getGlyphs() {
+        return glyphs;
+    }
+
+    /**
+     * The extracted glyphs, whose {@link TextElement}s are created as they are read.
+     *
+     * The list is a read-only view: changing it throws {@link UnsupportedOperationException}. Callers that
+     * used to change the list this method returned must copy it first.
+     */
     public List<TextElement> getTextElements() {
-        return this.textElements;
+        return glyphs.asList();
     }
 
     public RectangleSpatialIndex<TextElement> getSpatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = glyphs.newIndex();
+        }
         return spatialIndex;
     }
 
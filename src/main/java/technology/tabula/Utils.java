@@ -2,7 +2,6 @@ package technology.tabula;
 
 import java.awt.Shape;
 import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -39,6 +38,9 @@ public class Utils {
     }
 
     public static float round(double d, int decimalPlace) {
+        if (decimalPlace == 2) {
+            return FixedPoint.round(d);
+        }
         BigDecimal bd = new BigDecimal(Double.toString(d));
         bd = bd.setScale(decimalPlace, BigDecimal.ROUND_HALF_UP);
         return bd.floatValue();
@@ -188,86 +190,75 @@ public class Utils {
     }
 
     public static void snapPoints(List<? extends Line2D.Float> rulings, float xThreshold, float yThreshold) {
+        if (rulings.isEmpty()) {
+            return;
+        }
 
-        // collect points and keep a Line -> p1,p2 map
-        Map<Line2D.Float, Point2D[]> linesToPoints = new HashMap<>();
-        List<Point2D> points = new ArrayList<>();
+        // endpoint 2 * i starts the i-th ruling, 2 * i + 1 ends it
+        float[] xs = new float[rulings.size() * 2];
+        float[] ys = new float[xs.length];
+        int i = 0;
         for (Line2D.Float r : rulings) {
-            Point2D p1 = r.getP1();
-            Point2D p2 = r.getP2();
-            linesToPoints.put(r, new Point2D[]{p1, p2});
-            points.add(p1);
-            points.add(p2);
+            xs[i] = r.x1;
+            ys[i++] = r.y1;
+            xs[i] = r.x2;
+            ys[i++] = r.y2;
         }
 
-        // snap by X
-        Collections.sort(points, new Comparator<Point2D>() {
-            @Override
-            public int compare(Point2D arg0, Point2D arg1) {
-                return java.lang.Double.compare(arg0.getX(), arg1.getX());
-            }
-        });
-
-        List<List<Point2D>> groupedPoints = new ArrayList<>();
-        groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{points.get(0)})));
-
-        for (Point2D p : points.subList(1, points.size() - 1)) {
-            List<Point2D> last = groupedPoints.get(groupedPoints.size() - 1);
-            if (Math.abs(p.getX() - last.get(0).getX()) < xThreshold) {
-                groupedPoints.get(groupedPoints.size() - 1).add(p);
-            } else {
-                groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{p})));
-            }
+        int[] identity = new int[xs.length];
+        for (int k = 0; k < identity.length; k++) {
+            identity[k] = k;
         }
+        // the sorts are stable, and the y sort starts from the x order, as the sorts of one point list were
+        int[] byX = sortedBy(xs, identity);
+        snapSorted(xs, byX, xThreshold);
+        snapSorted(ys, sortedBy(ys, byX), yThreshold);
 
-        for (List<Point2D> group : groupedPoints) {
-            float avgLoc = 0;
-            for (Point2D p : group) {
-                avgLoc += p.getX();
-            }
-            avgLoc /= group.size();
-            for (Point2D p : group) {
-                p.setLocation(avgLoc, p.getY());
-            }
+        i = 0;
+        for (Line2D.Float r : rulings) {
+            r.setLine(xs[i], ys[i], xs[i + 1], ys[i + 1]);
+            i += 2;
         }
-        // ---
-
-        // snap by Y
-        Collections.sort(points, new Comparator<Point2D>() {
-            @Override
-            public int compare(Point2D arg0, Point2D arg1) {
-                return java.lang.Double.compare(arg0.getY(), arg1.getY());
-            }
-        });
-
-        groupedPoints = new ArrayList<>();
-        groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{points.get(0)})));
+    }
 
-        for (Point2D p : points.subList(1, points.size() - 1)) {
-            List<Point2D> last = groupedPoints.get(groupedPoints.size() - 1);
-            if (Math.abs(p.getY() - last.get(0).getY()) < yThreshold) {
-                groupedPoints.get(groupedPoints.size() - 1).add(p);
-            } else {
-                groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{p})));
-            }
+    // order stably sorted by values[order[k]], in the order of Float.compare
+    private static int[] sortedBy(float[] values, int[] order) {
+        long[] keys = new long[order.length];
+        for (int k = 0; k < keys.length; k++) {
+            int bits = java.lang.Float.floatToIntBits(values[order[k]]);
+            // flip the magnitude of negatives so that the bits compare as signed ints do
+            bits ^= (bits >> 31) & 0x7fffffff;
+            keys[k] = ((long) bits << 32) | k;
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            sorted[k] = order[(int) keys[k]];
         }
+        return sorted;
+    }
 
-        for (List<Point2D> group : groupedPoints) {
+    // groups the sorted values that are within threshold of the first of their group, and moves each group to its
+    // average; the last value is left out, as it always was
+    private static void snapSorted(float[] values, int[] sorted, float threshold) {
+        int end = sorted.length - 1;
+        int start = 0;
+        while (start < end) {
+            float first = values[sorted[start]];
+            int stop = start + 1;
+            while (stop < end && Math.abs(values[sorted[stop]] - (double) first) < threshold) {
+                stop++;
+            }
             float avgLoc = 0;
-            for (Point2D p : group) {
-                avgLoc += p.getY();
+            for (int k = start; k < stop; k++) {
+                // summed in double and rounded to float, as the point coordinates were
+                avgLoc += (double) values[sorted[k]];
             }
-            avgLoc /= group.size();
-            for (Point2D p : group) {
-                p.setLocation(p.getX(), avgLoc);
+            avgLoc /= stop - start;
+            for (int k = start; k < stop; k++) {
+                values[sorted[k]] = avgLoc;
             }
-        }
-        // ---
-
-        // finally, modify lines
-        for (Map.Entry<Line2D.Float, Point2D[]> ltp : linesToPoints.entrySet()) {
-            Point2D[] p = ltp.getValue();
-            ltp.getKey().setLine(p[0], p[1]);
+            start = stop;
         }
     }
 
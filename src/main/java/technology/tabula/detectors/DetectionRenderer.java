@@ -0,0 +1,593 @@
+package technology.tabula.detectors;
+
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.rendering.PageDrawerParameters;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.IOException;
+import java.text.AttributedCharacterIterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a page for table detection twice over from a single interpretation of its content stream: as is, and
+ * without the text shown by the page's own content stream ({@code Tj} and {@code TJ}, like the former
+ * {@code removeText} step did). Text in forms and annotations is drawn in both.
+ */
+final class DetectionRenderer extends PDFRenderer {
+
+    private final PDDocument document;
+    private int width;
+    private int height;
+    private BufferedImage textlessImage;
+
+    DetectionRenderer(PDDocument document) {
+        super(document);
+        this.document = document;
+    }
+
+    /**
+     * @return the grayscale page with and without text, in that order
+     */
+    BufferedImage[] renderGrayImagesWithDPI(int pageIndex, float dpi) throws IOException {
+        // the size PDFRenderer gives the image it draws on
+        PDPage page = document.getPage(pageIndex);
+        float scale = dpi / 72f;
+        width = (int) Math.max(Math.floor(page.getCropBox().getWidth() * scale), 1);
+        height = (int) Math.max(Math.floor(page.getCropBox().getHeight() * scale), 1);
+        if (page.getRotation() == 90 || page.getRotation() == 270) {
+            int swap = width;
+            width = height;
+            height = swap;
+        }
+
+        textlessImage = null;
+        BufferedImage image = renderImageWithDPI(pageIndex, dpi, ImageType.GRAY);
+
+        BufferedImage textless = textlessImage;
+        textlessImage = null;
+        if (textless.getType() != image.getType()) {
+            // the page was drawn on a transparent background because of blend modes, flatten it the same way
+            BufferedImage flattened = new BufferedImage(textless.getWidth(), textless.getHeight(), image.getType());
+            Graphics2D g = flattened.createGraphics();
+            g.setBackground(Color.WHITE);
+            g.clearRect(0, 0, textless.getWidth(), textless.getHeight());
+            g.drawImage(textless, 0, 0, null);
+            g.dispose();
+            textless = flattened;
+        }
+        return new BufferedImage[] { image, textless };
+    }
+
+    @Override
+    protected PageDrawer createPageDrawer(PageDrawerParameters parameters) throws IOException {
+        return new TextlessPageDrawer(parameters);
+    }
+
+    private final class TextlessPageDrawer extends PageDrawer {
+
+        private TeeGraphics tee;
+        private boolean inPageContent;
+        private int operatorDepth;
+
+        TextlessPageDrawer(PageDrawerParameters parameters) throws IOException {
+            super(parameters);
+        }
+
+        @Override
+        public void drawPage(Graphics g, PDRectangle pageSize) throws IOException {
+            Graphics2D g2 = (Graphics2D) g;
+
+            // same kind of image and same starting state as the one PDFRenderer draws on
+            textlessImage = g2.getDeviceConfiguration().createCompatibleImage(width, height);
+            Graphics2D textless = textlessImage.createGraphics();
+            textless.setBackground(g2.getBackground());
+            textless.clearRect(0, 0, width, height);
+            textless.setTransform(g2.getTransform());
+            textless.setRenderingHints(g2.getRenderingHints());
+
+            tee = new TeeGraphics(g2, textless);
+            try {
+                super.drawPage(tee, pageSize);
+            } finally {
+                textless.dispose();
+                tee = null;
+            }
+        }
+
+        @Override
+        public void processPage(PDPage page) throws IOException {
+            inPageContent = true;
+            try {
+                super.processPage(page);
+            } finally {
+                inPageContent = false;
+            }
+        }
+
+        @Override
+        protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+            // only operators written in the page's content stream itself, not the Tj that ' and " are carried
+            // out with, nor anything run from within a form or glyph
+            String name = operator.getName();
+            boolean suppress = tee != null && inPageContent && operatorDepth == 0
+                    && (name.equals("Tj") || name.equals("TJ"));
+
+            operatorDepth++;
+            if (suppress) {
+                tee.drawSecond = false;
+            }
+            try {
+                super.processOperator(operator, operands);
+            } finally {
+                operatorDepth--;
+                if (suppress) {
+                    tee.drawSecond = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forwards every call to two graphics, reading state back from the first. Drawing on the second one can be
+     * switched off; state changes always reach both so that they stay in step.
+     */
+    private static final class TeeGraphics extends Graphics2D {
+
+        private final Graphics2D first;
+        private final Graphics2D second;
+        private boolean drawSecond = true;
+
+        TeeGraphics(Graphics2D first, Graphics2D second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        // - - - - - drawing
+
+        @Override
+        public void draw(Shape s) {
+            first.draw(s);
+            if (drawSecond) second.draw(s);
+        }
+
+        @Override
+        public void fill(Shape s) {
+            first.fill(s);
+            if (drawSecond) second.fill(s);
+        }
+
+        @Override
+        public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+            boolean rv = first.drawImage(img, xform, obs);
+            if (drawSecond) second.drawImage(img, xform, obs);
+            return rv;
+        }
+
+        @Override
+        public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+            first.drawImage(img, op, x, y);
+            if (drawSecond) second.drawImage(img, op, x, y);
+        }
+
+        @Override
+        public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+            first.drawRenderedImage(img, xform);
+            if (drawSecond) second.drawRenderedImage(img, xform);
+        }
+
+        @Override
+        public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+            first.drawRenderableImage(img, xform);
+            if (drawSecond) second.drawRenderableImage(img, xform);
+        }
+
+        @Override
+        public void drawString(String str, int x, int y) {
+            first.drawString(str, x, y);
+            if (drawSecond) second.drawString(str, x, y);
+        }
+
+        @Override
+        public void drawString(String str, float x, float y) {
+            first.drawString(str, x, y);
+            if (drawSecond) second.drawString(str, x, y);
+        }
+
+        @Override
+        public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+            first.drawString(iterator, x, y);
+            if (drawSecond) second.drawString(iterator, x, y);
+        }
+
+        @Override
+        public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+            first.drawString(iterator, x, y);
+            if (drawSecond) second.drawString(iterator, x, y);
+        }
+
+        @Override
+        public void drawGlyphVector(GlyphVector g, float x, float y) {
+            first.drawGlyphVector(g, x, y);
+            if (drawSecond) second.drawGlyphVector(g, x, y);
+        }
+
+        @Override
+        public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+            first.copyArea(x, y, width, height, dx, dy);
+            if (drawSecond) second.copyArea(x, y, width, height, dx, dy);
+        }
+
+        @Override
+        public void drawLine(int x1, int y1, int x2, int y2) {
+            first.drawLine(x1, y1, x2, y2);
+            if (drawSecond) second.drawLine(x1, y1, x2, y2);
+        }
+
+        @Override
+        public void fillRect(int x, int y, int width, int height) {
+            first.fillRect(x, y, width, height);
+            if (drawSecond) second.fillRect(x, y, width, height);
+        }
+
+        @Override
+        public void clearRect(int x, int y, int width, int height) {
+            first.clearRect(x, y, width, height);
+            if (drawSecond) second.clearRect(x, y, width, height);
+        }
+
+        @Override
+        public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+            first.drawRoundRect(x, y, width, height, arcWidth, arcHeight);
+            if (drawSecond) second.drawRoundRect(x, y, width, height, arcWidth, arcHeight);
+        }
+
+        @Override
+        public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+            first.fillRoundRect(x, y, width, height, arcWidth, arcHeight);
+            if (drawSecond) second.fillRoundRect(x, y, width, height, arcWidth, arcHeight);
+        }
+
+        @Override
+        public void drawOval(int x, int y, int width, int height) {
+            first.drawOval(x, y, width, height);
+            if (drawSecond) second.drawOval(x, y, width, height);
+        }
+
+        @Override
+        public void fillOval(int x, int y, int width, int height) {
+            first.fillOval(x, y, width, height);
+            if (drawSecond) second.fillOval(x, y, width, height);
+        }
+
+        @Override
+        public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+            first.drawArc(x, y, width, height, startAngle, arcAngle);
+            if (drawSecond) second.drawArc(x, y, width, height, startAngle, arcAngle);
+        }
+
+        @Override
+        public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+            first.fillArc(x, y, width, height, startAngle, arcAngle);
+            if (drawSecond) second.fillArc(x, y, width, height, startAngle, arcAngle);
+        }
+
+        @Override
+        public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+            first.drawPolyline(xPoints, yPoints, nPoints);
+            if (drawSecond) second.drawPolyline(xPoints, yPoints, nPoints);
+        }
+
+        @Override
+        public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+            first.drawPolygon(xPoints, yPoints, nPoints);
+            if (drawSecond) second.drawPolygon(xPoints, yPoints, nPoints);
+        }
+
+        @Override
+        public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+            first.fillPolygon(xPoints, yPoints, nPoints);
+            if (drawSecond) second.fillPolygon(xPoints, yPoints, nPoints);
+        }
+
+        @Override
+        public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+            boolean rv = first.drawImage(img, x, y, observer);
+            if (drawSecond) second.drawImage(img, x, y, observer);
+            return rv;
+        }
+
+        @Override
+        public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+            boolean rv = first.drawImage(img, x, y, width, height, observer);
+            if (drawSecond) second.drawImage(img, x, y, width, height, observer);
+            return rv;
+        }
+
+        @Override
+        public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+            boolean rv = first.drawImage(img, x, y, bgcolor, observer);
+            if (drawSecond) second.drawImage(img, x, y, bgcolor, observer);
+            return rv;
+        }
+
+        @Override
+        public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+            boolean rv = first.drawImage(img, x, y, width, height, bgcolor, observer);
+            if (drawSecond) second.drawImage(img, x, y, width, height, bgcolor, observer);
+            return rv;
+        }
+
+        @Override
+        public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+                                 ImageObserver observer) {
+            boolean rv = first.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+            if (drawSecond) second.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+            return rv;
+        }
+
+        @Override
+        public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+                                 Color bgcolor, ImageObserver observer) {
+            boolean rv = first.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, observer);
+            if (drawSecond) second.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, observer);
+            return rv;
+        }
+
+        // - - - - - state
+
+        @Override
+        public Graphics create() {
+            TeeGraphics rv = new TeeGraphics((Graphics2D) first.create(), (Graphics2D) second.create());
+            rv.drawSecond = drawSecond;
+            return rv;
+        }
+
+        @Override
+        public void dispose() {
+            first.dispose();
+            second.dispose();
+        }
+
+        @Override
+        public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+            return first.hit(rect, s, onStroke);
+        }
+
+        @Override
+        public GraphicsConfiguration getDeviceConfiguration() {
+            return first.getDeviceConfiguration();
+        }
+
+        @Override
+        public FontRenderContext getFontRenderContext() {
+            return first.getFontRenderContext();
+        }
+
+        @Override
+        public void setComposite(Composite comp) {
+            first.setComposite(comp);
+            second.setComposite(comp);
+        }
+
+        @Override
+        public Composite getComposite() {
+            return first.getComposite();
+        }
+
+        @Override
+        public void setPaint(Paint paint) {
+            first.setPaint(paint);
+            second.setPaint(paint);
+        }
+
+        @Override
+        public Paint getPaint() {
+            return first.getPaint();
+        }
+
+        @Override
+        public void setStroke(Stroke s) {
+            first.setStroke(s);
+            second.setStroke(s);
+        }
+
+        @Override
+        public Stroke getStroke() {
+            return first.getStroke();
+        }
+
+        @Override
+        public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+            first.setRenderingHint(hintKey, hintValue);
+            second.setRenderingHint(hintKey, hintValue);
+        }
+
+        @Override
+        public Object getRenderingHint(RenderingHints.Key hintKey) {
+            return first.getRenderingHint(hintKey);
+        }
+
+        @Override
+        public void setRenderingHints(Map<?, ?> hints) {
+            first.setRenderingHints(hints);
+            second.setRenderingHints(hints);
+        }
+
+        @Override
+        public void addRenderingHints(Map<?, ?> hints) {
+            first.addRenderingHints(hints);
+            second.addRenderingHints(hints);
+        }
+
+        @Override
+        public RenderingHints getRenderingHints() {
+            return first.getRenderingHints();
+        }
+
+        @Override
+        public void translate(int x, int y) {
+            first.translate(x, y);
+            second.translate(x, y);
+        }
+
+        @Override
+        public void translate(double tx, double ty) {
+            first.translate(tx, ty);
+            second.translate(tx, ty);
+        }
+
+        @Override
+        public void rotate(double theta) {
+            first.rotate(theta);
+            second.rotate(theta);
+        }
+
+        @Override
+        public void rotate(double theta, double x, double y) {
+            first.rotate(theta, x, y);
+            second.rotate(theta, x, y);
+        }
+
+        @Override
+        public void scale(double sx, double sy) {
+            first.scale(sx, sy);
+            second.scale(sx, sy);
+        }
+
+        @Override
+        public void shear(double shx, double shy) {
+            first.shear(shx, shy);
+            second.shear(shx, shy);
+        }
+
+        @Override
+        public void transform(AffineTransform tx) {
+            first.transform(tx);
+            second.transform(tx);
+        }
+
+        @Override
+        public void setTransform(AffineTransform tx) {
+            first.setTransform(tx);
+            second.setTransform(tx);
+        }
+
+        @Override
+        public AffineTransform getTransform() {
+            return first.getTransform();
+        }
+
+        @Override
+        public void setBackground(Color color) {
+            first.setBackground(color);
+            second.setBackground(color);
+        }
+
+        @Override
+        public Color getBackground() {
+            return first.getBackground();
+        }
+
+        @Override
+        public void clip(Shape s) {
+            first.clip(s);
+            second.clip(s);
+        }
+
+        @Override
+        public Color getColor() {
+            return first.getColor();
+        }
+
+        @Override
+        public void setColor(Color c) {
+            first.setColor(c);
+            second.setColor(c);
+        }
+
+        @Override
+        public void setPaintMode() {
+            first.setPaintMode();
+            second.setPaintMode();
+        }
+
+        @Override
+        public void setXORMode(Color c) {
+            first.setXORMode(c);
+            second.setXORMode(c);
+        }
+
+        @Override
+        public Font getFont() {
+            return first.getFont();
+        }
+
+        @Override
+        public void setFont(Font font) {
+            first.setFont(font);
+            second.setFont(font);
+        }
+
+        @Override
+        public FontMetrics getFontMetrics(Font f) {
+            return first.getFontMetrics(f);
+        }
+
+        @Override
+        public Rectangle getClipBounds() {
+            return first.getClipBounds();
+        }
+
+        @Override
+        public void clipRect(int x, int y, int width, int height) {
+            first.clipRect(x, y, width, height);
+            second.clipRect(x, y, width, height);
+        }
+
+        @Override
+        public void setClip(int x, int y, int width, int height) {
+            first.setClip(x, y, width, height);
+            second.setClip(x, y, width, height);
+        }
+
+        @Override
+        public Shape getClip() {
+            return first.getClip();
+        }
+
+        @Override
+        public void setClip(Shape clip) {
+            first.setClip(clip);
+            second.setClip(clip);
+        }
+    }
+
+}
@@ -1,20 +1,14 @@
 package technology.tabula.detectors;
 
-import org.apache.pdfbox.contentstream.operator.Operator;
-import org.apache.pdfbox.cos.COSName;
-import org.apache.pdfbox.pdfparser.PDFStreamParser;
-import org.apache.pdfbox.pdfwriter.ContentStreamWriter;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.common.PDStream;
 import org.apache.pdfbox.rendering.ImageType;
 
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
 import java.awt.image.Raster;
-import java.io.IOException;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -35,6 +29,7 @@ import technology.tabula.TextChunk;
 import technology.tabula.TextElement;
 import technology.tabula.Utils;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.metrics.Metrics;
 
 /**
  * Created by matt on 2015-12-17.
@@ -45,6 +40,12 @@ import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
  */
 public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
 
+    /**
+     * Resolution pages are rendered at to look for ruling lines. The pixel distances below are for this resolution
+     * and are scaled to the one in use.
+     */
+    public static final int DEFAULT_DPI = 144;
+
     private static final int GRAYSCALE_INTENSITY_THRESHOLD = 25;
     private static final int HORIZONTAL_EDGE_WIDTH_MINIMUM = 50;
     private static final int VERTICAL_EDGE_HEIGHT_MINIMUM = 10;
@@ -55,6 +56,27 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
     private static final int REQUIRED_CELLS_FOR_TABLE = 4;
     private static final float IDENTICAL_TABLE_OVERLAP_RATIO = 0.9f;
 
+    private final int dpi;
+    // image pixels per PDF point, and per pixel at DEFAULT_DPI
+    private final float pixelsPerPoint;
+    private final float pixelScale;
+
+    public NurminenDetectionAlgorithm() {
+        this(DEFAULT_DPI);
+    }
+
+    /**
+     * @param dpi resolution pages are rendered at to find ruling lines; lower is faster but misses thinner lines
+     */
+    public NurminenDetectionAlgorithm(int dpi) {
+        if (dpi <= 0) {
+            throw new IllegalArgumentException("dpi must be positive: " + dpi);
+        }
+        this.dpi = dpi;
+        this.pixelsPerPoint = dpi / 72f;
+        this.pixelScale = (float) dpi / DEFAULT_DPI;
+    }
+
     /**
      * Helper class that encapsulates a text edge
      */
@@ -100,41 +122,29 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
 
     @Override
     public List<Rectangle> detect(PageArea pageArea) {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.DETECTION, pageArea.getPageNumber())) {
+            return doDetect(pageArea);
+        }
+    }
+
+    private List<Rectangle> doDetect(PageArea pageArea) {
 
         // get horizontal & vertical lines
         // we get these from an image of the PDF and not the PDF itself because sometimes there are invisible PDF
         // instructions that are interpreted incorrectly as visible elements - we really want to capture what a
         // person sees when they look at the PDF
-        BufferedImage image;
-        PDPage pdfPage = pageArea.getPDPage();
-        try {
-            image = Utils.pageConvertToImage(pageArea.getPDDoc(), pdfPage, 144, ImageType.GRAY);
-        } catch (IOException e) {
-            return new ArrayList<>();
-        }
-
-        List<Ruling> horizontalRulings = this.getHorizontalRulings(image);
-
-        // now check the page for vertical lines, but remove the text first to make things less confusing
-        PDDocument removeTextDocument = null;
+        // the page is rendered as is for the horizontal lines, and without its text for the vertical lines to make
+        // things less confusing - both images come out of a single pass over the page
+        BufferedImage[] images;
         try {
-            removeTextDocument = this.removeText(pdfPage);
-            pdfPage = removeTextDocument.getPage(0);
-            image = Utils.pageConvertToImage(removeTextDocument, pdfPage, 144, ImageType.GRAY);
+            PDDocument document = pageArea.getPDDoc();
+            images = new DetectionRenderer(document).renderGrayImagesWithDPI(pageArea.getPageNumber() - 1, dpi);
         } catch (Exception e) {
             return new ArrayList<>();
-        } finally {
-            if (removeTextDocument != null) {
-                try {
-                    removeTextDocument.close();
-                } catch (IOException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-            }
         }
 
-        List<Ruling> verticalRulings = this.getVerticalRulings(image);
+        List<Ruling> horizontalRulings = this.getHorizontalRulings(images[0]);
+        List<Ruling> verticalRulings = this.getVerticalRulings(images[1]);
 
         List<Ruling> allEdges = new ArrayList<>(horizontalRulings);
         allEdges.addAll(verticalRulings);
@@ -144,7 +154,8 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
         // if we found some edges, try to find some tables based on them
         if (allEdges.size() > 0) {
             // now we need to snap edge endpoints to a grid
-            Utils.snapPoints(allEdges, POINT_SNAP_DISTANCE_THRESHOLD, POINT_SNAP_DISTANCE_THRESHOLD);
+            float snapDistance = POINT_SNAP_DISTANCE_THRESHOLD * pixelScale;
+            Utils.snapPoints(allEdges, snapDistance, snapDistance);
 
             // normalize the rulings to make sure snapping didn't create any wacky non-horizontal/vertical rulings
             for (List<Ruling> rulings : Arrays.asList(horizontalRulings, verticalRulings)) {
@@ -161,8 +172,8 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
             // merge the edge lines into rulings - this makes finding edges between crossing points in the next step easier
             // we use a larger pixel expansion than the normal spreadsheet extraction method to cover gaps in the
             // edge detection/pixel snapping steps
-            horizontalRulings = Ruling.collapseOrientedRulings(horizontalRulings, 5);
-            verticalRulings = Ruling.collapseOrientedRulings(verticalRulings, 5);
+            horizontalRulings = Ruling.collapseOrientedRulings(horizontalRulings, scaled(5));
+            verticalRulings = Ruling.collapseOrientedRulings(verticalRulings, scaled(5));
 
             // use the rulings and points to find cells
             List<? extends Rectangle> cells = SpreadsheetExtractionAlgorithm.findCells(horizontalRulings, verticalRulings);
@@ -186,21 +197,21 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
             }
         }
 
-        // the tabula Page coordinate space is half the size of the PDFBox image coordinate space
+        // the tabula Page coordinate space is smaller than the PDFBox image coordinate space (half the size at 144 dpi)
         // so halve the table area size before proceeding and add a bit of padding to make sure we capture everything
         for (Rectangle area : tableAreas) {
-            area.x = (float) Math.floor(area.x / 2) - TABLE_PADDING_AMOUNT;
-            area.y = (float) Math.floor(area.y / 2) - TABLE_PADDING_AMOUNT;
-            area.width = (float) Math.ceil(area.width / 2) + TABLE_PADDING_AMOUNT;
-            area.height = (float) Math.ceil(area.height / 2) + TABLE_PADDING_AMOUNT;
+            area.x = (float) Math.floor(area.x / pixelsPerPoint) - TABLE_PADDING_AMOUNT;
+            area.y = (float) Math.floor(area.y / pixelsPerPoint) - TABLE_PADDING_AMOUNT;
+            area.width = (float) Math.ceil(area.width / pixelsPerPoint) + TABLE_PADDING_AMOUNT;
+            area.height = (float) Math.ceil(area.height / pixelsPerPoint) + TABLE_PADDING_AMOUNT;
         }
 
-        // we're going to want halved horizontal lines later too
+        // we're going to want scaled down horizontal lines later too
         for (Line2D.Float ruling : horizontalRulings) {
-            ruling.x1 = ruling.x1 / 2;
-            ruling.y1 = ruling.y1 / 2;
-            ruling.x2 = ruling.x2 / 2;
-            ruling.y2 = ruling.y2 / 2;
+            ruling.x1 = ruling.x1 / pixelsPerPoint;
+            ruling.y1 = ruling.y1 / pixelsPerPoint;
+            ruling.x2 = ruling.x2 / pixelsPerPoint;
+            ruling.y2 = ruling.y2 / pixelsPerPoint;
         }
 
         // now look at text rows to help us find more tables and flesh out existing ones
@@ -640,7 +651,7 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
 
                     for (Point2D candidateCorner : candidateCorners) {
                         for (Point2D groupCellCorner : groupCellCorners) {
-                            if (candidateCorner.distance(groupCellCorner) < CELL_CORNER_DISTANCE_MAXIMUM) {
+                            if (candidateCorner.distance(groupCellCorner) < CELL_CORNER_DISTANCE_MAXIMUM * pixelScale) {
                                 cellGroup.add(cell);
                                 addedToGroup = true;
                                 break cellCheck;
@@ -687,62 +698,13 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
 
         // get all horizontal edges, which we'll define as a change in grayscale colour
         // along a straight line of a certain length
-        ArrayList<Ruling> horizontalRulings = new ArrayList<>();
-
-        Raster r = image.getRaster();
-        int width = r.getWidth();
-        int height = r.getHeight();
+        int width = image.getWidth();
+        int height = image.getHeight();
 
-        for (int x = 0; x < width; x++) {
-
-            int[] lastPixel = r.getPixel(x, 0, (int[]) null);
-
-            for (int y = 1; y < height - 1; y++) {
-
-                int[] currPixel = r.getPixel(x, y, (int[]) null);
-
-                int diff = Math.abs(currPixel[0] - lastPixel[0]);
-                if (diff > GRAYSCALE_INTENSITY_THRESHOLD) {
-                    // we hit what could be a line
-                    // don't bother scanning it if we've hit a pixel in the line before
-                    boolean alreadyChecked = false;
-                    for (Line2D.Float line : horizontalRulings) {
-                        if (y == line.getY1() && x >= line.getX1() && x <= line.getX2()) {
-                            alreadyChecked = true;
-                            break;
-                        }
-                    }
-
-                    if (alreadyChecked) {
-                        lastPixel = currPixel;
-                        continue;
-                    }
-
-                    int lineX = x + 1;
-
-                    while (lineX < width) {
-                        int[] linePixel = r.getPixel(lineX, y, (int[]) null);
-                        int[] abovePixel = r.getPixel(lineX, y - 1, (int[]) null);
-
-                        if (Math.abs(linePixel[0] - abovePixel[0]) <= GRAYSCALE_INTENSITY_THRESHOLD
-                                || Math.abs(currPixel[0] - linePixel[0]) > GRAYSCALE_INTENSITY_THRESHOLD) {
-                            break;
-                        }
-
-                        lineX++;
-                    }
-
-                    int endX = lineX - 1;
-                    int lineWidth = endX - x;
-                    if (lineWidth > HORIZONTAL_EDGE_WIDTH_MINIMUM) {
-                        horizontalRulings.add(new Ruling(new Point2D.Float(x, y), new Point2D.Float(endX, y)));
-                    }
-                }
-
-                lastPixel = currPixel;
-            }
-        }
+        List<Ruling> horizontalRulings = findEdges(grayPixels(image), width, height, scaled(HORIZONTAL_EDGE_WIDTH_MINIMUM), true);
 
+        // edges are found row by row, report them column by column like the pixels used to be visited
+        horizontalRulings.sort(Comparator.comparingDouble((Ruling r) -> r.getX1()).thenComparingDouble(Ruling::getY1));
         return horizontalRulings;
     }
 
@@ -750,95 +712,105 @@ public class NurminenDetectionAlgorithm implements DetectionAlgorithm {
 
         // get all vertical edges, which we'll define as a change in grayscale colour
         // along a straight line of a certain length
-        ArrayList<Ruling> verticalRulings = new ArrayList<>();
-
-        Raster r = image.getRaster();
-        int width = r.getWidth();
-        int height = r.getHeight();
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        // scan the columns as rows of the transposed image so that following an edge down a column walks
+        // memory sequentially
+        byte[] pixels = grayPixels(image);
+        byte[] transposed = new byte[pixels.length];
+        for (int y = 0, row = 0; y < height; y++, row += width) {
+            for (int x = 0; x < width; x++) {
+                transposed[x * height + y] = pixels[row + x];
+            }
+        }
 
-        for (int y = 0; y < height; y++) {
+        List<Ruling> verticalRulings = findEdges(transposed, height, width, scaled(VERTICAL_EDGE_HEIGHT_MINIMUM), false);
 
-            int[] lastPixel = r.getPixel(0, y, (int[]) null);
+        verticalRulings.sort(Comparator.comparingDouble((Ruling r) -> r.getY1()).thenComparingDouble(Ruling::getX1));
+        return verticalRulings;
+    }
 
-            for (int x = 1; x < width - 1; x++) {
+    private int scaled(int pixels) {
+        return Math.round(pixels * pixelScale);
+    }
 
-                int[] currPixel = r.getPixel(x, y, (int[]) null);
+    /**
+     * Finds edges along the lines of a grayscale image of {@code lineCount} lines of {@code lineLength} pixels:
+     * runs of pixels that differ from the previous line's pixels and stay close to the run's first pixel.
+     * An edge only ever covers the rest of its own line, so pixels up to the end of the last edge found on a
+     * line are skipped instead of being scanned again.
+     */
+    private static List<Ruling> findEdges(byte[] pixels, int lineLength, int lineCount, int minimumLength, boolean horizontal) {
+        List<Ruling> edges = new ArrayList<>();
 
-                int diff = Math.abs(currPixel[0] - lastPixel[0]);
-                if (diff > GRAYSCALE_INTENSITY_THRESHOLD) {
-                    // we hit what could be a line
-                    // don't bother scanning it if we've hit a pixel in the line before
-                    boolean alreadyChecked = false;
-                    for (Line2D.Float line : verticalRulings) {
-                        if (x == line.getX1() && y >= line.getY1() && y <= line.getY2()) {
-                            alreadyChecked = true;
-                            break;
-                        }
-                    }
+        for (int line = 1; line < lineCount - 1; line++) {
+            int curr = line * lineLength;
+            int prev = curr - lineLength;
 
-                    if (alreadyChecked) {
-                        lastPixel = currPixel;
-                        continue;
-                    }
+            for (int start = 0; start < lineLength; start++) {
+                int startPixel = pixels[curr + start] & 0xFF;
 
-                    int lineY = y + 1;
+                if (Math.abs(startPixel - (pixels[prev + start] & 0xFF)) > GRAYSCALE_INTENSITY_THRESHOLD) {
+                    // we hit what could be a line
+                    int end = start + 1;
 
-                    while (lineY < height) {
-                        int[] linePixel = r.getPixel(x, lineY, (int[]) null);
-                        int[] leftPixel = r.getPixel(x - 1, lineY, (int[]) null);
+                    while (end < lineLength) {
+                        int linePixel = pixels[curr + end] & 0xFF;
+                        int prevPixel = pixels[prev + end] & 0xFF;
 
-                        if (Math.abs(linePixel[0] - leftPixel[0]) <= GRAYSCALE_INTENSITY_THRESHOLD
-                                || Math.abs(currPixel[0] - linePixel[0]) > GRAYSCALE_INTENSITY_THRESHOLD) {
+                        if (Math.abs(linePixel - prevPixel) <= GRAYSCALE_INTENSITY_THRESHOLD
+                                || Math.abs(startPixel - linePixel) > GRAYSCALE_INTENSITY_THRESHOLD) {
                             break;
                         }
 
-                        lineY++;
+                        end++;
                     }
 
-                    int endY = lineY - 1;
-                    int lineLength = endY - y;
-                    if (lineLength > VERTICAL_EDGE_HEIGHT_MINIMUM) {
-                        verticalRulings.add(new Ruling(new Point2D.Float(x, y), new Point2D.Float(x, endY)));
+                    end--;
+                    if (end - start > minimumLength) {
+                        edges.add(horizontal
+                                ? new Ruling(new Point2D.Float(start, line), new Point2D.Float(end, line))
+                                : new Ruling(new Point2D.Float(line, start), new Point2D.Float(line, end)));
+                        start = end;
                     }
                 }
-
-                lastPixel = currPixel;
             }
         }
 
-        return verticalRulings;
+        return edges;
     }
 
+    /**
+     * The 8-bit gray levels of {@code image}, one byte per pixel in row-major order. This is the image's own
+     * buffer when it is laid out that way already, which is how PDFBox renders {@link ImageType#GRAY}.
+     */
+    private static byte[] grayPixels(BufferedImage image) {
+        Raster r = image.getRaster();
+        int width = r.getWidth();
+        int height = r.getHeight();
 
-    // taken from http://www.docjar.com/html/api/org/apache/pdfbox/examples/util/RemoveAllText.java.html
-    private PDDocument removeText(PDPage page) throws IOException {
-
-        PDFStreamParser parser = new PDFStreamParser(page);
-        parser.parse();
-        List<Object> tokens = parser.getTokens();
-        List<Object> newTokens = new ArrayList<>();
-        for (Object token : tokens) {
-            if (token instanceof Operator) {
-                Operator op = (Operator) token;
-                if (op.getName().equals("TJ") || op.getName().equals("Tj")) {
-                    //remove the one argument to this operator
-                    newTokens.remove(newTokens.size() - 1);
-                    continue;
-                }
+        if (r.getDataBuffer() instanceof DataBufferByte
+                && r.getSampleModel() instanceof ComponentSampleModel
+                && r.getNumBands() == 1
+                && r.getSampleModelTranslateX() == 0 && r.getSampleModelTranslateY() == 0) {
+            DataBufferByte buffer = (DataBufferByte) r.getDataBuffer();
+            ComponentSampleModel sampleModel = (ComponentSampleModel) r.getSampleModel();
+            if (buffer.getNumBanks() == 1 && buffer.getOffset() == 0
+                    && sampleModel.getPixelStride() == 1 && sampleModel.getScanlineStride() == width
+                    && sampleModel.getBandOffsets()[0] == 0 && buffer.getData().length == width * height) {
+                return buffer.getData();
             }
-            newTokens.add(token);
         }
 
-        PDDocument document = new PDDocument();
-        PDPage newPage = document.importPage(page);
-        newPage.setResources(page.getResources());
-
-        PDStream newContents = new PDStream(document);
-        OutputStream out = newContents.createOutputStream(COSName.FLATE_DECODE);
-        ContentStreamWriter writer = new ContentStreamWriter(out);
-        writer.writeTokens(newTokens);
-        out.close();
-        newPage.setContents(newContents);
-        return document;
+        byte[] pixels = new byte[width * height];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            r.getSamples(r.getMinX(), r.getMinY() + y, width, 1, 0, row);
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = (byte) row[x];
+            }
+        }
+        return pixels;
     }
 }
@@ -7,6 +7,7 @@ import technology.tabula.Cell;
 import technology.tabula.PageArea;
 import technology.tabula.Rectangle;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.metrics.Metrics;
 
 /**
  * Created by matt on 2015-12-14.
@@ -18,15 +19,17 @@ import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
 public class SpreadsheetDetectionAlgorithm implements DetectionAlgorithm {
     @Override
     public List<Rectangle> detect(PageArea pageArea) {
-        List<Cell> cells = SpreadsheetExtractionAlgorithm.findCells(pageArea.getHorizontalRulings(), pageArea.getVerticalRulings());
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.DETECTION, pageArea.getPageNumber())) {
+            List<Cell> cells = SpreadsheetExtractionAlgorithm.findCells(pageArea.getHorizontalRulings(), pageArea.getVerticalRulings());
 
-        SpreadsheetExtractionAlgorithm sea = new SpreadsheetExtractionAlgorithm();
+            SpreadsheetExtractionAlgorithm sea = new SpreadsheetExtractionAlgorithm();
 
-        List<Rectangle> tables = SpreadsheetExtractionAlgorithm.findSpreadsheetsFromCells(cells);
+            List<Rectangle> tables = SpreadsheetExtractionAlgorithm.findSpreadsheetsFromCells(cells);
 
-        // we want tables to be returned from top to bottom on the page
-        Collections.sort(tables, Rectangle.ILL_DEFINED_ORDER);
+            // we want tables to be returned from top to bottom on the page
+            Collections.sort(tables, Rectangle.ILL_DEFINED_ORDER);
 
-        return tables;
+            return tables;
+        }
     }
 }
@@ -13,6 +13,7 @@ import technology.tabula.Ruling;
 import technology.tabula.Table;
 import technology.tabula.TextChunk;
 import technology.tabula.TextElement;
+import technology.tabula.metrics.Metrics;
 
 public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
     
@@ -36,6 +37,14 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
 
     @Override
     public List<Table> extract(PageArea pageArea) {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.BASIC_EXTRACTION, pageArea.getPageNumber())) {
+            List<Table> tables = doExtract(pageArea);
+            Metrics.count(Metrics.Counter.TABLES, pageArea.getPageNumber(), tables.size());
+            return tables;
+        }
+    }
+
+    private List<Table> doExtract(PageArea pageArea) {
         
         List<TextElement> textElements = pageArea.getText();
         
@@ -66,6 +75,16 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
         Table table = new Table(this);
         table.setRect(pageArea.getLeft(), pageArea.getTop(), pageArea.getWidth(), pageArea.getHeight());
 
+        float[] columnRights = new float[columns.size()];
+        // columns are sorted, the NaNs last; a chunk is never left of those
+        int comparableColumns = 0;
+        for (int j = 0; j < columnRights.length; j++) {
+            columnRights[j] = columns.get(j);
+            if (!java.lang.Float.isNaN(columnRights[j])) {
+                comparableColumns = j + 1;
+            }
+        }
+
         for (int i = 0; i < lines.size(); i++) {
             Line line = lines.get(i);
             List<TextChunk> elements = line.getTextElements();
@@ -83,21 +102,27 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
                     continue;
                 }
 
-                int j = 0;
-                boolean found = false;
-                for(; j < columns.size(); j++) {
-                    if (tc.getLeft() <= columns.get(j)) {
-                        found = true; 
-                        break;
-                    } 
-                }
-                table.add(tc, i, found ? j : columns.size());
+                table.add(tc, i, columnOf(tc.getLeft(), columnRights, comparableColumns));
             }
         }
         
         return Arrays.asList(new Table[] { table } );
     }
     
+    // the first column whose right edge is not left of left, or columnRights.length if there is none
+    private static int columnOf(float left, float[] columnRights, int comparableColumns) {
+        int lo = 0, hi = comparableColumns;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (left <= columnRights[mid]) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo < comparableColumns ? lo : columnRights.length;
+    }
+    
     @Override
     public String toString() {
         return "stream";
@@ -110,14 +135,12 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
      */
     public static List<java.lang.Float> columnPositions(List<Line> lines) {
 
-        List<Rectangle> regions = new ArrayList<>();
+        ColumnRegions regions = new ColumnRegions();
         for (TextChunk tc: lines.get(0).getTextElements()) {
             if (tc.isSameChar(Line.WHITE_SPACE_CHARS)) { 
                 continue; 
             }
-            Rectangle r = new Rectangle();
-            r.setRect(tc);
-            regions.add(r);
+            regions.add(tc);
         }
         
         for (Line l: lines.subList(1, lines.size())) {
@@ -128,31 +151,26 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
                 }
             }
             
-            for (Rectangle cr: regions) {
-
-                List<TextChunk> overlaps = new ArrayList<>();
-                for (TextChunk te: lineTextElements) {
-                    if (cr.horizontallyOverlaps(te)) {
-                        overlaps.add(te);
-                    }
-                }
-                
-                for (TextChunk te: overlaps) {
-                    cr.merge(te);
+            // each chunk widens the first region it overlaps, as the regions were before this line
+            regions.sortByLeft();
+            int[] regionOf = new int[lineTextElements.size()];
+            for (int k = 0; k < regionOf.length; k++) {
+                regionOf[k] = regions.firstOverlapping(lineTextElements.get(k));
+            }
+            for (int k = 0; k < regionOf.length; k++) {
+                if (regionOf[k] >= 0) {
+                    regions.get(regionOf[k]).merge(lineTextElements.get(k));
                 }
-                
-                lineTextElements.removeAll(overlaps);
             }
-            
-            for (TextChunk te: lineTextElements) {
-                Rectangle r = new Rectangle();
-                r.setRect(te);
-                regions.add(r);
+            for (int k = 0; k < regionOf.length; k++) {
+                if (regionOf[k] < 0) {
+                    regions.add(lineTextElements.get(k));
+                }
             }
         }
         
         List<java.lang.Float> rv = new ArrayList<>();
-        for (Rectangle r: regions) {
+        for (Rectangle r: regions.regions) {
             rv.add(r.getRight());
         }
         
@@ -162,4 +180,83 @@ public class BasicExtractionAlgorithm implements ExtractionAlgorithm {
         
     }
 
+    /**
+     * The column regions of {@link #columnPositions(List)} in the order they were found, and an index of
+     * them by left edge with the rightmost right edge of each prefix, so that finding the regions a chunk
+     * overlaps only looks at those that start left of its right edge and stops at the first prefix that
+     * ends left of it.
+     */
+    private static final class ColumnRegions {
+        private final List<Rectangle> regions = new ArrayList<>();
+        private int[] byLeft = new int[16];
+        private float[] lefts = new float[16];
+        private float[] maxRights = new float[16];
+        private int sortedCount = 0;
+
+        void add(TextChunk tc) {
+            Rectangle r = new Rectangle();
+            r.setRect(tc);
+            regions.add(r);
+        }
+
+        Rectangle get(int region) {
+            return regions.get(region);
+        }
+
+        void sortByLeft() {
+            int n = regions.size();
+            if (byLeft.length < n) {
+                int capacity = Math.max(n, byLeft.length * 2);
+                int[] previous = byLeft;
+                byLeft = new int[capacity];
+                System.arraycopy(previous, 0, byLeft, 0, previous.length);
+                lefts = new float[capacity];
+                maxRights = new float[capacity];
+            }
+            // regions only widen and new ones go last, so the previous order is nearly right
+            for (int k = 0; k < n; k++) {
+                int region = k < sortedCount ? byLeft[k] : k;
+                float left = regions.get(region).getLeft();
+                int m = k;
+                while (m > 0 && java.lang.Float.compare(lefts[m - 1], left) > 0) {
+                    byLeft[m] = byLeft[m - 1];
+                    lefts[m] = lefts[m - 1];
+                    m--;
+                }
+                byLeft[m] = region;
+                lefts[m] = left;
+            }
+            sortedCount = n;
+            for (int k = 0; k < n; k++) {
+                float right = regions.get(byLeft[k]).getRight();
+                // NaN edges overlap nothing, and must not hide the regions before them
+                float previous = k == 0 ? java.lang.Float.NEGATIVE_INFINITY : maxRights[k - 1];
+                maxRights[k] = right > previous ? right : previous;
+            }
+        }
+
+        // the first region found that overlaps tc horizontally, -1 if none does
+        int firstOverlapping(TextChunk tc) {
+            float left = tc.getLeft(), right = tc.getRight();
+            // past the last region starting left of right
+            int lo = 0, hi = sortedCount;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (lefts[mid] < right) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            int first = -1;
+            for (int k = lo - 1; k >= 0 && maxRights[k] > left; k--) {
+                int region = byLeft[k];
+                if ((first < 0 || region < first) && regions.get(region).horizontallyOverlaps(tc)) {
+                    first = region;
+                }
+            }
+            return first;
+        }
+    }
+
 }
@@ -2,14 +2,17 @@ package technology.tabula.extractors;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 import technology.tabula.Cell;
+import technology.tabula.FixedPoint;
 import technology.tabula.PageArea;
 import technology.tabula.Rectangle;
 import technology.tabula.Ruling;
@@ -17,6 +20,7 @@ import technology.tabula.Table;
 import technology.tabula.TableWithRulingLines;
 import technology.tabula.TextElement;
 import technology.tabula.Utils;
+import technology.tabula.metrics.Metrics;
 
 /**
  * @author manuel
@@ -25,6 +29,9 @@ import technology.tabula.Utils;
 public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
     
     private static final float MAGIC_HEURISTIC_NUMBER = 0.65f;
+
+    // below this, merging the words of cells takes less time than handing them out to other threads
+    private static final int PARALLEL_MERGE_MIN_CELLS = 256;
     
     private static final Comparator<Point2D> Y_FIRST_POINT_COMPARATOR = (point1, point2) -> {
         int compareY = compareRounded(point1.getY(), point2.getY());
@@ -43,10 +50,22 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
     };
 
     private static int compareRounded(double d1, double d2) {
-        float d1Rounded = Utils.round(d1, 2);
-        float d2Rounded = Utils.round(d2, 2);
+        return FixedPoint.compare(d1, d2);
+    }
+
+    private boolean parallel = true;
+
+    /**
+     * Whether the text of large tables may be merged on the common {@link java.util.concurrent.ForkJoinPool},
+     * which it is by default. Callers that extract on a bounded pool of their own turn this off, so that
+     * extraction stays on the threads they gave it.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 
-        return Float.compare(d1Rounded, d2Rounded);
+    public boolean isParallel() {
+        return parallel;
     }
     
     @Override
@@ -58,23 +77,44 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
      * Extract a list of Table from page using rulings as separators
      */
     public List<Table> extract(PageArea pageArea, List<Ruling> rulings) {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.SPREADSHEET_EXTRACTION, pageArea.getPageNumber())) {
+            List<Table> tables = doExtract(pageArea, rulings);
+            Metrics.count(Metrics.Counter.TABLES, pageArea.getPageNumber(), tables.size());
+            return tables;
+        }
+    }
+
+    private List<Table> doExtract(PageArea pageArea, List<Ruling> rulings) {
         // split rulings into horizontal and vertical
         List<Ruling> horizontalR = new ArrayList<>();
         List<Ruling> verticalR = new ArrayList<>();
         
+        // collapsing extends rulings in place, and the page's own may be shared by other extractions
         for (Ruling r: rulings) {
             if (r.horizontal()) {
-                horizontalR.add(r);
+                horizontalR.add((Ruling) r.clone());
             }
             else if (r.vertical()) {
-                verticalR.add(r);
+                verticalR.add((Ruling) r.clone());
             }
         }
         horizontalR = Ruling.collapseOrientedRulings(horizontalR);
         verticalR = Ruling.collapseOrientedRulings(verticalR);
         
         List<Cell> cells = findCells(horizontalR, verticalR);
+        Metrics.count(Metrics.Counter.CELLS, pageArea.getPageNumber(), cells.size());
         List<Rectangle> spreadsheetAreas = findSpreadsheetsFromCells(cells);
+
+        List<Cell> tableCells = new ArrayList<>();
+        for (Cell c: cells) {
+            for (Rectangle area: spreadsheetAreas) {
+                if (c.intersects(area)) {
+                    tableCells.add(c);
+                    break;
+                }
+            }
+        }
+        setCellTexts(pageArea, tableCells, parallel);
         
         List<Table> spreadsheets = new ArrayList<>();
         for (Rectangle area: spreadsheetAreas) {
@@ -82,8 +122,6 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
             List<Cell> overlappingCells = new ArrayList<>();
             for (Cell c: cells) {
                 if (c.intersects(area)) {
-
-                    c.setTextElements(TextElement.mergeWords(pageArea.getText(c)));
                     overlappingCells.add(c);
                 }
             }
@@ -108,6 +146,31 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
         return spreadsheets;
     }
     
+    /**
+     * Looks up the text of all cells in one pass over the page's glyphs, then merges the text of each cell
+     * into words once, even if it is part of several tables.
+     */
+    private static void setCellTexts(PageArea pageArea, List<Cell> cells, boolean parallel) {
+        List<List<TextElement>> cellTexts = pageArea.getText(cells);
+        IntStream cellIndexes = IntStream.range(0, cells.size());
+        if (parallel && cells.size() >= PARALLEL_MERGE_MIN_CELLS) {
+            // the lookup above created every TextElement needed, merging only reads them
+            cellIndexes = cellIndexes.parallel();
+        }
+        // the pool's threads don't know whether the caller is untracked
+        boolean untracked = Metrics.isUntracked();
+        cellIndexes.forEach(i -> {
+            List<TextElement> cellText = cellTexts.get(i);
+            cells.get(i).setTextElements(untracked ?
+                    Metrics.untracked(() -> TextElement.mergeWords(cellText)) :
+                    TextElement.mergeWords(cellText));
+        });
+    }
+    
+    /**
+     * Whether lattice rather than stream extraction suits the page. The trial extractions this takes are
+     * reported as {@link Metrics.Stage#METHOD_DECISION}, not as extractions.
+     */
     public boolean isTabular(PageArea pageArea) {
         
         // if there's no text at all on the page, it's not a table 
@@ -116,23 +179,37 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
             return false; 
         }
 
-        // get minimal region of page that contains every character (in effect,
-        // removes white "margins")
-        PageArea minimalRegion = pageArea.getArea(Utils.bounds(pageArea.getText()));
-        
-        List<? extends Table> tables = new SpreadsheetExtractionAlgorithm().extract(minimalRegion);
-        if (tables.isEmpty()) {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.METHOD_DECISION, pageArea.getPageNumber())) {
+            return Metrics.untracked(() -> {
+                // get minimal region of page that contains every character (in effect,
+                // removes white "margins")
+                PageArea minimalRegion = pageArea.getArea(Utils.bounds(pageArea.getText()));
+
+                List<Table> latticeTables = extract(minimalRegion);
+                if (latticeTables.isEmpty()) {
+                    return false;
+                }
+                return isTabular(latticeTables, new BasicExtractionAlgorithm().extract(minimalRegion));
+            });
+        }
+    }
+
+    /**
+     * The decision of {@link #isTabular(PageArea)}, given the tables that lattice and stream extraction found in the
+     * smallest area around the text of the page: whether their first tables have about as many rows and columns.
+     */
+    public static boolean isTabular(List<? extends Table> latticeTables, List<? extends Table> streamTables) {
+        if (latticeTables.isEmpty()) {
             return false;
         }
-        Table table = tables.get(0);
+        Table table = latticeTables.get(0);
         int rowsDefinedByLines = table.getRowCount();
         int colsDefinedByLines = table.getColCount();
         
-        tables = new BasicExtractionAlgorithm().extract(minimalRegion);
-        if (tables.isEmpty()) {
+        if (streamTables.isEmpty()) {
             return false;
         }
-        table = tables.get(0);
+        table = streamTables.get(0);
         int rowsDefinedWithoutLines = table.getRowCount();
         int colsDefinedWithoutLines = table.getColCount();
         
@@ -147,39 +224,52 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
         Map<Point2D, Ruling[]> intersectionPoints = Ruling.findIntersections(horizontalRulingLines, verticalRulingLines);
         List<Point2D> intersectionPointsList = new ArrayList<>(intersectionPoints.keySet());
         intersectionPointsList.sort(Y_FIRST_POINT_COMPARATOR);
-        
-        for (int i = 0; i < intersectionPointsList.size(); i++) {
-            Point2D topLeft = intersectionPointsList.get(i);
-            Ruling[] hv = intersectionPoints.get(topLeft);
 
-            List<Point2D> xPoints = new ArrayList<>();
-            List<Point2D> yPoints = new ArrayList<>();
+        int n = intersectionPointsList.size();
+        Point2D[] points = intersectionPointsList.toArray(new Point2D[n]);
+        Ruling[][] rulings = new Ruling[n][];
+        for (int i = 0; i < n; i++) {
+            rulings[i] = intersectionPoints.get(points[i]);
+        }
 
-            for (Point2D p: intersectionPointsList.subList(i, intersectionPointsList.size())) {
-                if (p.getX() == topLeft.getX() && p.getY() > topLeft.getY()) {
-                    xPoints.add(p);
-                }
-                if (p.getY() == topLeft.getY() && p.getX() > topLeft.getX()) {
-                    yPoints.add(p);
+        // points sharing the exact x (column) or y (row), each group in the order of the sorted list
+        int[] byColumn = indexBy(points, true);
+        int[] byRow = indexBy(points, false);
+        int[] columnSlot = slots(byColumn);
+        int[] rowSlot = slots(byRow);
+        int[] yPoints = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            Point2D topLeft = points[i];
+            Ruling[] hv = rulings[i];
+
+            // points right of topLeft on its horizontal ruling
+            int yCount = 0;
+            for (int s = rowSlot[i] + 1; s < n && points[byRow[s]].getY() == topLeft.getY(); s++) {
+                int p = byRow[s];
+                if (points[p].getX() > topLeft.getX() && hv[0].equals(rulings[p][0])) {
+                    yPoints[yCount++] = p;
                 }
             }
-            outer:
-            for (Point2D xPoint: xPoints) {
+            if (yCount == 0) {
+                continue;
+            }
 
-                // is there a vertical edge b/w topLeft and xPoint?
-                if (!hv[1].equals(intersectionPoints.get(xPoint)[1])) {
+            // points below topLeft on its vertical ruling; the first one that closes a cell wins
+            outer:
+            for (int s = columnSlot[i] + 1; s < n && points[byColumn[s]].getX() == topLeft.getX(); s++) {
+                int xPoint = byColumn[s];
+                if (!(points[xPoint].getY() > topLeft.getY()) || !hv[1].equals(rulings[xPoint][1])) {
                     continue;
                 }
-                for (Point2D yPoint: yPoints) {
-                    // is there an horizontal edge b/w topLeft and yPoint ?
-                    if (!hv[0].equals(intersectionPoints.get(yPoint)[0])) {
-                        continue;
-                    }
-                    Point2D btmRight = new Point2D.Float((float) yPoint.getX(), (float) xPoint.getY());
-                    if (intersectionPoints.containsKey(btmRight) 
-                            && intersectionPoints.get(btmRight)[0].equals(intersectionPoints.get(xPoint)[0])
-                            && intersectionPoints.get(btmRight)[1].equals(intersectionPoints.get(yPoint)[1])) {
-                            cellsFound.add(new Cell(topLeft, btmRight));
+                for (int k = 0; k < yCount; k++) {
+                    int yPoint = yPoints[k];
+                    Point2D btmRight = new Point2D.Float((float) points[yPoint].getX(), (float) points[xPoint].getY());
+                    Ruling[] btmRightHv = intersectionPoints.get(btmRight);
+                    if (btmRightHv != null
+                            && btmRightHv[0].equals(rulings[xPoint][0])
+                            && btmRightHv[1].equals(rulings[yPoint][1])) {
+                        cellsFound.add(new Cell(topLeft, btmRight));
                         break outer;
                     }
                 }
@@ -193,6 +283,36 @@ public class SpreadsheetExtractionAlgorithm implements ExtractionAlgorithm {
         return cellsFound;
     }
     
+    /**
+     * Indices of {@code points} grouped by exact x (or y) coordinate, keeping the original order inside each group.
+     */
+    private static int[] indexBy(Point2D[] points, boolean byX) {
+        Integer[] indices = new Integer[points.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (i1, i2) -> {
+            double c1 = byX ? points[i1].getX() : points[i1].getY();
+            double c2 = byX ? points[i2].getX() : points[i2].getY();
+            if (c1 < c2) return -1;
+            if (c1 > c2) return 1;
+            return Integer.compare(i1, i2);
+        });
+        int[] rv = new int[indices.length];
+        for (int i = 0; i < rv.length; i++) {
+            rv[i] = indices[i];
+        }
+        return rv;
+    }
+
+    private static int[] slots(int[] index) {
+        int[] rv = new int[index.length];
+        for (int s = 0; s < index.length; s++) {
+            rv[index[s]] = s;
+        }
+        return rv;
+    }
+
     public static List<Rectangle> findSpreadsheetsFromCells(List<? extends Rectangle> cells) {
         // via: http://stackoverflow.com/questions/13746284/merging-multiple-adjacent-rectangles-into-one-polygon
         List<Rectangle> rectangles = new ArrayList<>();
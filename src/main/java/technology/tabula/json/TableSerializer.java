@@ -1,5 +1,6 @@
 package technology.tabula.json;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
 
@@ -11,6 +12,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
 
 public final class TableSerializer implements JsonSerializer<Table> {
 
@@ -42,4 +44,29 @@ public final class TableSerializer implements JsonSerializer<Table> {
         return json;
     }
 
+    /**
+     * Writes the same fields as {@link #serialize} builds, straight to {@code json} without building a tree. Cells
+     * are written by {@link RectangularTextContainerSerializer#write(JsonWriter, RectangularTextContainer)}.
+     */
+    public static void write(JsonWriter json, Table table) throws IOException {
+        // edges are floats, boxed so that they are written as such; width and height are doubles
+        json.beginObject();
+        json.name("extraction_method").value(table.getExtractionMethod());
+        json.name("top").value(Float.valueOf(table.getTop()));
+        json.name("left").value(Float.valueOf(table.getLeft()));
+        json.name("width").value(table.getWidth());
+        json.name("height").value(table.getHeight());
+        json.name("right").value(Float.valueOf(table.getRight()));
+        json.name("bottom").value(Float.valueOf(table.getBottom()));
+        json.name("data").beginArray();
+        for (List<RectangularTextContainer> tableRow : table.getRows()) {
+            json.beginArray();
+            for (RectangularTextContainer<?> textChunk : tableRow)
+                RectangularTextContainerSerializer.write(json, textChunk);
+            json.endArray();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
 }
@@ -0,0 +1,136 @@
+package technology.tabula.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Flight Recorder side of {@link Metrics}.
+ *
+ * Only the nested classes touch {@code jdk.jfr}, and only once {@link #AVAILABLE} is known to be true,
+ * so Java 8 runtimes without Flight Recorder load this class fine and simply never record.
+ */
+final class JfrEvents {
+
+    static final boolean AVAILABLE = isAvailable();
+
+    private JfrEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorderListener", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static void listen() {
+        try {
+            Recordings.listen();
+        } catch (RuntimeException | LinkageError e) {
+            // e.g. denied by a security manager, Flight Recorder just stays off for us
+        }
+    }
+
+    static Object begin(Metrics.Stage stage, int pageNumber) {
+        return StageEvent.begin(stage, pageNumber);
+    }
+
+    static void commit(Object event) {
+        ((StageEvent) event).commit();
+    }
+
+    static void count(Metrics.Counter counter, int pageNumber, long value) {
+        PageCountEvent.commit(counter, pageNumber, value);
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
+
+    private static final class Recordings implements FlightRecorderListener {
+
+        static void listen() {
+            FlightRecorder.addListener(new Recordings());
+            // recordings started from the command line are already running by now
+            if (FlightRecorder.isInitialized()) {
+                Metrics.setRecording(isRecording());
+            }
+        }
+
+        @Override
+        public void recordingStateChanged(Recording recording) {
+            Metrics.setRecording(isRecording());
+        }
+
+        private static boolean isRecording() {
+            for (Recording r : FlightRecorder.getFlightRecorder().getRecordings()) {
+                if (r.getState() == RecordingState.RUNNING) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Name("technology.tabula.Stage")
+    @Label("Tabula Stage")
+    @Description("Time spent in one stage of the extraction pipeline")
+    @Category("Tabula")
+    @StackTrace(false)
+    static final class StageEvent extends Event {
+
+        @Label("Stage")
+        String stage;
+
+        @Label("Page Number")
+        @Description("0 when not tied to a page")
+        int pageNumber;
+
+        static StageEvent begin(Metrics.Stage stage, int pageNumber) {
+            StageEvent event = new StageEvent();
+            if (!event.isEnabled()) {
+                return null;
+            }
+            event.stage = stage.name();
+            event.pageNumber = pageNumber;
+            event.begin();
+            return event;
+        }
+    }
+
+    @Name("technology.tabula.PageCount")
+    @Label("Tabula Page Count")
+    @Description("Number of glyphs, rulings, cells or tables found on a page")
+    @Category("Tabula")
+    @StackTrace(false)
+    static final class PageCountEvent extends Event {
+
+        @Label("Counter")
+        String counter;
+
+        @Label("Page Number")
+        int pageNumber;
+
+        @Label("Value")
+        long value;
+
+        static void commit(Metrics.Counter counter, int pageNumber, long value) {
+            PageCountEvent event = new PageCountEvent();
+            if (event.isEnabled()) {
+                event.counter = counter.name();
+                event.pageNumber = pageNumber;
+                event.value = value;
+                event.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+package technology.tabula.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timings and per-page counters of the extraction pipeline.
+ *
+ * Measurements go to the installed {@link MetricsSink} and, on JVMs that ship JDK Flight Recorder, to
+ * {@code technology.tabula.Stage} and {@code technology.tabula.PageCount} events while a recording is
+ * running. With neither, {@link #time(Stage, int)} hands out a shared no-op timer and {@link #count}
+ * returns right away, so the instrumented code only pays for a couple of field reads.
+ *
+ * <pre>
+ * try (Metrics.Timer timer = Metrics.time(Metrics.Stage.PARSE, pageNumber)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class Metrics {
+
+    public enum Stage {
+        /** Reading text and rulings from the content stream, see {@code TextExtractor}. */
+        PARSE,
+        /** Snapping and collapsing rulings, see {@code PageArea.getRulings()}. */
+        RULING_CLEANUP,
+        MERGE_WORDS,
+        DETECTION,
+        BASIC_EXTRACTION,
+        SPREADSHEET_EXTRACTION,
+        /** Trial extractions that decide between lattice and stream, see {@code SpreadsheetExtractionAlgorithm.isTabular}. */
+        METHOD_DECISION,
+        WRITE
+    }
+
+    public enum Counter {
+        GLYPHS,
+        RULINGS,
+        CELLS,
+        TABLES
+    }
+
+    private static volatile MetricsSink sink;
+    private static volatile boolean recording;
+
+    // set while this thread runs untracked work
+    private static final ThreadLocal<Boolean> UNTRACKED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    static {
+        if (JfrEvents.AVAILABLE) {
+            JfrEvents.listen();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Installs the sink that receives all further measurements, or removes it when {@code null}.
+     */
+    public static void setSink(MetricsSink sink) {
+        Metrics.sink = sink;
+    }
+
+    public static MetricsSink getSink() {
+        return sink;
+    }
+
+    static void setRecording(boolean recording) {
+        Metrics.recording = recording;
+    }
+
+    public static boolean isEnabled() {
+        return sink != null || recording;
+    }
+
+    /**
+     * Starts timing {@code stage}; the time is reported when the returned timer is closed.
+     */
+    public static Timer time(Stage stage, int pageNumber) {
+        MetricsSink s = sink;
+        boolean r = recording;
+        if (s == null && !r || UNTRACKED.get()) {
+            return Timer.NOOP;
+        }
+        return new Timer(stage, pageNumber, s, r ? JfrEvents.begin(stage, pageNumber) : null);
+    }
+
+    public static Timer time(Stage stage) {
+        return time(stage, 0);
+    }
+
+    public static void count(Counter counter, int pageNumber, long value) {
+        MetricsSink s = sink;
+        boolean r = recording;
+        if (s == null && !r || UNTRACKED.get()) {
+            return;
+        }
+        if (s != null) {
+            s.count(counter, pageNumber, value);
+        }
+        if (r) {
+            JfrEvents.count(counter, pageNumber, value);
+        }
+    }
+
+    /**
+     * Runs {@code work} on this thread without reporting any of its timings and counters, for trial extractions
+     * whose results are thrown away. The caller reports the time they took, e.g. as {@link Stage#METHOD_DECISION},
+     * and counts what it keeps of them.
+     */
+    public static <T> T untracked(Supplier<T> work) {
+        if (!isEnabled() || UNTRACKED.get()) {
+            return work.get();
+        }
+        UNTRACKED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            UNTRACKED.set(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Whether this thread runs {@link #untracked(Supplier) untracked} work. Work it hands to other threads must
+     * run untracked there too.
+     */
+    public static boolean isUntracked() {
+        return UNTRACKED.get();
+    }
+
+    // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
+
+    public static final class Timer implements AutoCloseable {
+
+        static final Timer NOOP = new Timer(null, 0, null, null);
+
+        private final Stage stage;
+        private final int pageNumber;
+        private final MetricsSink sink;
+        // a JFR event, typed loosely so that this class still loads without jdk.jfr
+        private final Object event;
+        private final long start;
+
+        private Timer(Stage stage, int pageNumber, MetricsSink sink, Object event) {
+            this.stage = stage;
+            this.pageNumber = pageNumber;
+            this.sink = sink;
+            this.event = event;
+            this.start = sink != null ? System.nanoTime() : 0L;
+        }
+
+        @Override
+        public void close() {
+            if (sink != null) {
+                sink.time(stage, pageNumber, System.nanoTime() - start);
+            }
+            if (event != null) {
+                JfrEvents.commit(event);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package technology.tabula.metrics;
+
+/**
+ * Receives stage timings and per-page counters, see {@link Metrics#setSink(MetricsSink)}.
+ *
+ * Calls arrive on whichever thread did the work, possibly several at once, so implementations
+ * must be thread-safe. A page number of 0 means the measurement is not tied to a page.
+ */
+public interface MetricsSink {
+
+    default void time(Metrics.Stage stage, int pageNumber, long nanos) {
+    }
+
+    default void count(Metrics.Counter counter, int pageNumber, long value) {
+    }
+
+}
@@ -10,6 +10,7 @@ import org.apache.commons.csv.CSVFormat;
 
 import technology.tabula.RectangularTextContainer;
 import technology.tabula.Table;
+import technology.tabula.metrics.Metrics;
 
 public class CSVWriter implements Writer {
 
@@ -33,15 +34,43 @@ public class CSVWriter implements Writer {
     public void write(Appendable out, List<Table> tables) throws IOException {
         try (CSVPrinter printer = new CSVPrinter(out, format)) {
             for (Table table : tables) {
-                for (List<RectangularTextContainer> row : table.getRows()) {
-                    List<String> cells = new ArrayList<>(row.size());
-                    for (RectangularTextContainer<?> cell : row)
-                    	cells.add(cell.getText());
-                    printer.printRecord(cells);
-                }
+                printTable(printer, table);
             }
             printer.flush();
         }
     }
 
+    @Override
+    public TableStream open(Appendable out) throws IOException {
+        final CSVPrinter printer = new CSVPrinter(out, format);
+        return new TableStream() {
+            @Override
+            public void write(Table table) throws IOException {
+                printTable(printer, table);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                printer.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // the printer would close out as well
+                printer.flush();
+            }
+        };
+    }
+
+    private static void printTable(CSVPrinter printer, Table table) throws IOException {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.WRITE)) {
+            for (List<RectangularTextContainer> row : table.getRows()) {
+                List<String> cells = new ArrayList<>(row.size());
+                for (RectangularTextContainer<?> cell : row)
+                    cells.add(cell.getText());
+                printer.printRecord(cells);
+            }
+        }
+    }
+
 }
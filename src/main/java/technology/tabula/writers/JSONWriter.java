@@ -1,61 +1,115 @@
 package technology.tabula.writers;
 
-import com.google.gson.ExclusionStrategy;
-import com.google.gson.FieldAttributes;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-
-import technology.tabula.Cell;
-import technology.tabula.RectangularTextContainer;
+import com.google.gson.stream.JsonWriter;
+
 import technology.tabula.Table;
-import technology.tabula.TextChunk;
 import technology.tabula.json.RectangularTextContainerSerializer;
 import technology.tabula.json.TableSerializer;
+import technology.tabula.metrics.Metrics;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.util.List;
 
-import static java.lang.reflect.Modifier.PUBLIC;
-
+/**
+ * Writes tables as JSON straight to the output, without building a {@link com.google.gson.JsonElement}
+ * tree first. Tables are written by {@link TableSerializer} and {@link RectangularTextContainerSerializer},
+ * and the output is the one a default {@link com.google.gson.Gson} produces from their trees.
+ */
 public class JSONWriter implements Writer {
 
-    private static final ExclusionStrategy ALL_CLASSES_SKIPPING_NON_PUBLIC_FIELDS = new ExclusionStrategy() {
-        @Override
-        public boolean shouldSkipClass(Class<?> c) {
-            return false;
-        }
-
-        @Override
-        public boolean shouldSkipField(FieldAttributes fieldAttributes) {
-            return !fieldAttributes.hasModifier(PUBLIC);
-        }
-    };
-
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
     @Override
     public void write(Appendable out, Table table) throws IOException {
-        out.append(gson().toJson(table, Table.class));
+        writeTable(jsonWriter(out), table);
     }
 
     @Override
     public void write(Appendable out, List<Table> tables) throws IOException {
-        Gson gson = gson();
-        JsonArray jsonElements = new JsonArray();
+        JsonWriter json = jsonWriter(out);
+        json.beginArray();
         for (Table table : tables)
-            jsonElements.add(gson.toJsonTree(table, Table.class));
-        out.append(gson.toJson(jsonElements));
+            writeTable(json, table);
+        json.endArray();
+    }
+
+    /**
+     * Writes the enclosing JSON array up front and every table as soon as it arrives. The array is only
+     * ended when the stream is finished.
+     */
+    @Override
+    public TableStream open(Appendable out) throws IOException {
+        final JsonWriter json = jsonWriter(out);
+        json.beginArray();
+        return new TableStream() {
+            @Override
+            public void write(Table table) throws IOException {
+                writeTable(json, table);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                json.endArray();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
     }
 
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - //
-    private static Gson gson() {
-        return new GsonBuilder()
-                .addSerializationExclusionStrategy(ALL_CLASSES_SKIPPING_NON_PUBLIC_FIELDS)
-                .registerTypeAdapter(Table.class, TableSerializer.INSTANCE)
-                .registerTypeAdapter(RectangularTextContainer.class, RectangularTextContainerSerializer.INSTANCE)
-                .registerTypeAdapter(Cell.class, RectangularTextContainerSerializer.INSTANCE)
-                .registerTypeAdapter(TextChunk.class, RectangularTextContainerSerializer.INSTANCE)
-                .create();
+    private static void writeTable(JsonWriter json, Table table) throws IOException {
+        try (Metrics.Timer timer = Metrics.time(Metrics.Stage.WRITE)) {
+            TableSerializer.write(json, table);
+        }
+    }
+
+    private static JsonWriter jsonWriter(Appendable out) {
+        JsonWriter json = new JsonWriter(out instanceof java.io.Writer ? (java.io.Writer) out : new AppendableWriter(out));
+        // as Gson.toJson() writes by default: leniently (e.g. Infinity), escaping HTML, leaving nulls out
+        json.setLenient(true);
+        json.setHtmlSafe(true);
+        json.setSerializeNulls(false);
+        return json;
+    }
+
+    /**
+     * Adapts an {@link Appendable} such as a {@link StringBuilder}. Never closes the target.
+     */
+    private static final class AppendableWriter extends java.io.Writer {
+
+        private final Appendable out;
+
+        AppendableWriter(Appendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.append(CharBuffer.wrap(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out instanceof java.io.Flushable) {
+                ((java.io.Flushable) out).flush();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
     }
 
 }
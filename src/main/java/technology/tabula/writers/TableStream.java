@@ -0,0 +1,30 @@
+package technology.tabula.writers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import technology.tabula.Table;
+
+/**
+ * Receives tables as they are extracted, e.g. page by page, and writes them to the output the
+ * stream was opened on. {@link #finish()} completes the output once every table was written;
+ * closing the stream without it, e.g. because extraction failed, leaves the output unfinished
+ * so that it can't be taken for a complete one. Neither closes the underlying {@link Appendable}.
+ */
+public interface TableStream extends Closeable {
+
+    void write(Table table) throws IOException;
+
+    /**
+     * Completes the output, e.g. ends the enclosing JSON array. No table may be written afterwards.
+     */
+    void finish() throws IOException;
+
+    default void write(List<Table> tables) throws IOException {
+        for (Table table : tables) {
+            write(table);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package technology.tabula.writers;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import technology.tabula.Table;
@@ -11,4 +12,31 @@ public interface Writer {
 
     void write(Appendable out, List<Table> tables) throws IOException;
 
+    /**
+     * Opens a stream that writes tables to {@code out} as they arrive. The output is the same as
+     * writing all of them at once with {@link #write(Appendable, List)}.
+     *
+     * Writers that cannot write incrementally keep the tables until the stream is finished, and
+     * write nothing if it is closed before.
+     */
+    default TableStream open(Appendable out) throws IOException {
+        List<Table> tables = new ArrayList<>();
+        return new TableStream() {
+            @Override
+            public void write(Table table) {
+                tables.add(table);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                Writer.this.write(out, tables);
+            }
+
+            @Override
+            public void close() {
+                tables.clear();
+            }
+        };
+    }
+
 }
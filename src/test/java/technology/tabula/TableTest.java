@@ -2,6 +2,11 @@ package technology.tabula;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Test;
 
 public class TableTest {
@@ -42,4 +47,58 @@ public class TableTest {
 		assertEquals(10, table.getColCount());
 	}
 
+	@Test public void testSparseRows() {
+		Table table = Table.empty();
+		TextChunk a = new TextChunk(0, 0, 10, 10);
+		TextChunk b = new TextChunk(20, 30, 10, 10);
+		table.add(a, 0, 1);
+		table.add(b, 2, 3);
+
+		List<List<RectangularTextContainer>> rows = table.getRows();
+		assertEquals(3, rows.size());
+		assertEquals(Arrays.asList(TextChunk.EMPTY, a, TextChunk.EMPTY, TextChunk.EMPTY), rows.get(0));
+		assertEquals(Collections.nCopies(4, TextChunk.EMPTY), rows.get(1));
+		assertEquals(Arrays.asList(TextChunk.EMPTY, TextChunk.EMPTY, TextChunk.EMPTY, b), rows.get(2));
+		assertSame(b, table.getCell(2, 3));
+		assertEquals(TextChunk.EMPTY, table.getCell(5, 5));
+		assertEquals(Arrays.asList(a, b), new ArrayList<>(table.cells.values()));
+	}
+
+	@Test public void testAddToTakenCellMerges() {
+		Table table = Table.empty();
+		table.add(new TextChunk(0, 0, 10, 10), 0, 0);
+		TextChunk second = new TextChunk(0, 20, 10, 10);
+		table.add(second, 0, 0);
+
+		assertSame(second, table.getCell(0, 0));
+		assertEquals(0, second.getLeft(), 0);
+		assertEquals(30, second.getRight(), 0);
+		assertEquals(1, table.cells.values().size());
+	}
+
+	@Test public void testRowsAreReadOnlyView() {
+		Table table = Table.empty();
+		TextChunk a = new TextChunk(0, 0, 10, 10);
+		table.add(a, 0, 0);
+		List<List<RectangularTextContainer>> rows = table.getRows();
+
+		try {
+			rows.get(0).set(0, TextChunk.EMPTY);
+			fail("rows should be read-only");
+		} catch (UnsupportedOperationException expected) {
+		}
+		try {
+			rows.add(new ArrayList<RectangularTextContainer>());
+			fail("rows should be read-only");
+		} catch (UnsupportedOperationException expected) {
+		}
+		assertSame(a, table.getCell(0, 0));
+
+		TextChunk b = new TextChunk(20, 0, 10, 10);
+		table.add(b, 1, 1);
+		assertEquals(2, rows.size());
+		assertEquals(Arrays.asList(a, TextChunk.EMPTY), rows.get(0));
+		assertEquals(Arrays.asList(TextChunk.EMPTY, b), rows.get(1));
+	}
+
 }
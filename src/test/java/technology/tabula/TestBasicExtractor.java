@@ -9,7 +9,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import technology.tabula.extractors.BasicExtractionAlgorithm;
 import technology.tabula.writers.CSVWriter;
@@ -351,4 +353,60 @@ public class TestBasicExtractor {
         assertEquals(expectedCsv, sb.toString());
     }
 
+    @Test
+    public void testColumnPositionsOfOverlappingChunks() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            List<Line> lines = new ArrayList<>();
+            for (int l = 0, lineCount = 1 + random.nextInt(30); l < lineCount; l++) {
+                Line line = new Line();
+                for (int c = 0, chunkCount = random.nextInt(12); c < chunkCount; c++) {
+                    String text = random.nextInt(8) == 0 ? " " : "x";
+                    line.addTextChunk(new TextChunk(new TextElement(l * 10f, random.nextInt(100) * 5f, 1 + random.nextInt(40), 8f, null, 8f, text, 2f, 0f)));
+                }
+                lines.add(line);
+            }
+            assertEquals(columnPositionsByNestedLoops(lines), BasicExtractionAlgorithm.columnPositions(lines));
+        }
+    }
+
+    // how columnPositions used to merge regions, one region and one chunk at a time
+    private static List<Float> columnPositionsByNestedLoops(List<Line> lines) {
+        List<Rectangle> regions = new ArrayList<>();
+        for (TextChunk tc : lines.get(0).getTextElements()) {
+            if (!tc.isSameChar(Line.WHITE_SPACE_CHARS)) {
+                regions.add(new Rectangle(tc.getTop(), tc.getLeft(), (float) tc.getWidth(), (float) tc.getHeight()));
+            }
+        }
+        for (Line l : lines.subList(1, lines.size())) {
+            List<TextChunk> lineTextElements = new ArrayList<>();
+            for (TextChunk tc : l.getTextElements()) {
+                if (!tc.isSameChar(Line.WHITE_SPACE_CHARS)) {
+                    lineTextElements.add(tc);
+                }
+            }
+            for (Rectangle cr : regions) {
+                List<TextChunk> overlaps = new ArrayList<>();
+                for (TextChunk te : lineTextElements) {
+                    if (cr.horizontallyOverlaps(te)) {
+                        overlaps.add(te);
+                    }
+                }
+                for (TextChunk te : overlaps) {
+                    cr.merge(te);
+                }
+                lineTextElements.removeAll(overlaps);
+            }
+            for (TextChunk te : lineTextElements) {
+                regions.add(new Rectangle(te.getTop(), te.getLeft(), (float) te.getWidth(), (float) te.getHeight()));
+            }
+        }
+        List<Float> rv = new ArrayList<>();
+        for (Rectangle r : regions) {
+            rv.add(r.getRight());
+        }
+        Collections.sort(rv);
+        return rv;
+    }
+
 }
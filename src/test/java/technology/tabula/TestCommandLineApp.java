@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.Arrays;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -66,6 +67,32 @@ public class TestCommandLineApp {
         assertArrayEquals(expectedCsv.getBytes(), Files.readAllBytes(csvPath));
     }
 
+    @Test
+    public void testExtractBatchContinuesPastBadFiles() throws IOException {
+        String expectedCsv = UtilsForTesting.loadCsv("src/test/resources/technology/tabula/csv/spreadsheet_no_bounding_frame.csv");
+        File batchFolder = folder.newFolder();
+
+        Path sourcePDF = Paths.get("src/test/resources/technology/tabula/spreadsheet_no_bounding_frame.pdf");
+        Files.copy(sourcePDF, batchFolder.toPath().resolve("first.pdf"));
+        Files.copy(sourcePDF, batchFolder.toPath().resolve("second.pdf"));
+        Files.write(batchFolder.toPath().resolve("broken.pdf"), "not a pdf".getBytes());
+
+        try {
+            this.csvFromCommandLineArgs(new String[]{
+                    "-b", batchFolder.getAbsolutePath(),
+                    "-p", "1", "-a",
+                    "150.56,58.9,654.7,536.12", "-f",
+                    "CSV", "--threads", "2", "-i"
+            });
+            fail("expected the broken file to be reported");
+        } catch (ParseException e) {
+            assertEquals("1 of 3 files could not be extracted", e.getMessage());
+        }
+
+        assertArrayEquals(expectedCsv.getBytes(), Files.readAllBytes(batchFolder.toPath().resolve("first.csv")));
+        assertArrayEquals(expectedCsv.getBytes(), Files.readAllBytes(batchFolder.toPath().resolve("second.csv")));
+    }
+
     @Test
     public void testExtractSpreadsheetWithAreaAndNewFile() throws ParseException, IOException {
 
@@ -216,4 +243,67 @@ public class TestCommandLineApp {
         assertEquals(expectedJson, resultJson);
     }
 
+    @Test
+    public void testThreadsOptionKeepsPageOrder() throws ParseException {
+        String expectedCsv = this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/us-020.pdf",
+                "-p", "all", "-f", "CSV"
+        });
+
+        assertEquals(expectedCsv, this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/us-020.pdf",
+                "-p", "all", "-f", "CSV", "--threads", "3"
+        }));
+    }
+
+    @Test(expected=org.apache.commons.cli.ParseException.class)
+    public void testThreadsOptionMustBePositive() throws ParseException {
+        this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/us-020.pdf",
+                "--threads", "0"
+        });
+    }
+
+    @Test
+    public void testSamplePagesSpreadOverPages() {
+        assertEquals(Arrays.asList(2, 6, 9), CommandLineApp.samplePages(Utils.range(1, 11), 3));
+        assertEquals(Arrays.asList(20), CommandLineApp.samplePages(Arrays.asList(10, 20, 30), 1));
+    }
+
+    @Test
+    public void testSamplePagesOptionOnUniformDocument() throws ParseException {
+        String expectedCsv = this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/mednine.pdf",
+                "-p", "all", "-f", "CSV"
+        });
+
+        assertEquals(expectedCsv, this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/mednine.pdf",
+                "-p", "all", "-f", "CSV", "--sample-pages", "2", "-i"
+        }));
+        assertEquals(expectedCsv, this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/mednine.pdf",
+                "-p", "all", "-f", "CSV", "--sample-pages", "2", "--threads", "2", "-i"
+        }));
+    }
+
+    @Test
+    public void testSamplePagesOptionDecidesPagesWhenSamplesDisagree() throws ParseException {
+        // the first page is lattice, the others stream
+        String pdf = "src/test/resources/technology/tabula/Publication_of_award_of_Bids_for_Transport_Sector__August_2016.pdf";
+        String expectedCsv = this.csvFromCommandLineArgs(new String[]{ pdf, "-p", "all", "-f", "CSV" });
+
+        assertEquals(expectedCsv, this.csvFromCommandLineArgs(new String[]{
+                pdf, "-p", "all", "-f", "CSV", "--sample-pages", "3", "-i"
+        }));
+    }
+
+    @Test(expected=ParseException.class)
+    public void testSamplePagesOptionMustBePositive() throws ParseException {
+        this.csvFromCommandLineArgs(new String[]{
+                "src/test/resources/technology/tabula/us-020.pdf",
+                "--sample-pages", "0"
+        });
+    }
+
 }
@@ -0,0 +1,176 @@
+package technology.tabula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class TestExtractionServer {
+
+    private static final String SPREADSHEET_QUERY = "p=1&area=150.56,58.9,654.7,536.12&format=CSV";
+
+    private ExtractionServer server;
+    private byte[] spreadsheetPdf;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new ExtractionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2, true);
+        server.start();
+        spreadsheetPdf = Files.readAllBytes(Paths.get("src/test/resources/technology/tabula/spreadsheet_no_bounding_frame.pdf"));
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpURLConnection request(String method, String pathAndQuery, byte[] body) throws IOException {
+        return request(method, pathAndQuery, body, server);
+    }
+
+    private static HttpURLConnection request(String method, String pathAndQuery, byte[] body, ExtractionServer server) throws IOException {
+        URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), pathAndQuery);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, n);
+        }
+        in.close();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String extract(String query, byte[] pdf) throws IOException {
+        HttpURLConnection connection = request("POST", "/extract?" + query, pdf);
+        assertEquals(200, connection.getResponseCode());
+        return read(connection.getInputStream());
+    }
+
+    @Test
+    public void testExtractStreamsSameOutputAsCommandLine() throws IOException {
+        String expectedCsv = UtilsForTesting.loadCsv("src/test/resources/technology/tabula/csv/spreadsheet_no_bounding_frame.csv");
+
+        HttpURLConnection connection = request("POST", "/extract?" + SPREADSHEET_QUERY, spreadsheetPdf);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("text/csv; charset=utf-8", connection.getContentType());
+        assertEquals(expectedCsv, read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        String expectedCsv = UtilsForTesting.loadCsv("src/test/resources/technology/tabula/csv/spreadsheet_no_bounding_frame.csv");
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(clients.submit(() -> extract(SPREADSHEET_QUERY, spreadsheetPdf)));
+            }
+            for (Future<String> response : responses) {
+                assertEquals(expectedCsv, response.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsBadRequests() throws IOException {
+        assertEquals(400, request("POST", "/extract?format=XML", spreadsheetPdf).getResponseCode());
+        assertEquals(400, request("POST", "/extract?batch=/tmp", spreadsheetPdf).getResponseCode());
+        assertEquals(400, request("POST", "/extract?unknown", spreadsheetPdf).getResponseCode());
+        assertEquals(400, request("POST", "/extract?threads=8", spreadsheetPdf).getResponseCode());
+        assertEquals(400, request("POST", "/extract", "not a pdf".getBytes(StandardCharsets.UTF_8)).getResponseCode());
+        assertEquals(405, request("GET", "/extract", null).getResponseCode());
+    }
+
+    @Test
+    public void testRejectsLargeRequests() throws IOException {
+        ExtractionServer smallServer = new ExtractionServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 1024, true);
+        smallServer.start();
+        byte[] body = Arrays.copyOf(spreadsheetPdf, 4096);
+        try {
+            URL url = new URL("http", "127.0.0.1", smallServer.getAddress().getPort(), "/extract?" + SPREADSHEET_QUERY);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            // no Content-Length, so that the body has to be counted
+            connection.setChunkedStreamingMode(256);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            assertEquals(413, connection.getResponseCode());
+            assertEquals(413, request("POST", "/extract?" + SPREADSHEET_QUERY, body, smallServer).getResponseCode());
+        } finally {
+            smallServer.stop(0);
+        }
+    }
+
+    @Test
+    public void testHealth() throws IOException {
+        extract(SPREADSHEET_QUERY, spreadsheetPdf);
+        request("POST", "/extract?format=XML", spreadsheetPdf).getResponseCode();
+
+        HttpURLConnection connection = request("GET", "/health", null);
+        assertEquals(200, connection.getResponseCode());
+        JsonObject health = new JsonParser().parse(read(connection.getInputStream())).getAsJsonObject();
+        assertEquals("ok", health.get("status").getAsString());
+        assertEquals(2, health.get("requests").getAsLong());
+        assertEquals(1, health.get("failed_requests").getAsLong());
+        assertEquals(1, health.get("pages").getAsLong());
+        assertEquals(0, health.get("active_requests").getAsInt());
+    }
+
+    @Test
+    public void testRequestOptions() throws ParseException {
+        CommandLine line = ExtractionServer.parseRequestOptions("l&pages=1-3%2C5&a=-10,0,100,50");
+        assertTrue(line.hasOption("lattice"));
+        assertEquals("1-3,5", line.getOptionValue('p'));
+        assertEquals("-10,0,100,50", line.getOptionValue("area"));
+    }
+
+    @Test
+    public void testServerAddress() throws ParseException {
+        assertEquals(new InetSocketAddress(InetAddress.getLoopbackAddress(), 8080), ExtractionServer.whichAddress("8080"));
+        assertEquals(new InetSocketAddress("0.0.0.0", 8080), ExtractionServer.whichAddress("0.0.0.0:8080"));
+    }
+
+}
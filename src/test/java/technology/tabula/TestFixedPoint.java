@@ -0,0 +1,62 @@
+package technology.tabula;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestFixedPoint {
+
+    private static float bigDecimalRound(double d) {
+        return new BigDecimal(Double.toString(d)).setScale(2, BigDecimal.ROUND_HALF_UP).floatValue();
+    }
+
+    private static void assertSameRounding(double d) {
+        assertEquals("rounding " + d, Float.floatToIntBits(bigDecimalRound(d)), Float.floatToIntBits(FixedPoint.round(d)));
+    }
+
+    @Test
+    public void testTiesRoundAwayFromZero() {
+        assertEquals(13, FixedPoint.toHundredths(0.125));
+        assertEquals(-13, FixedPoint.toHundredths(-0.125));
+        // the double nearest to 1.005 is slightly below it, but it prints as 1.005
+        assertEquals(101, FixedPoint.toHundredths(1.005));
+        assertEquals(268, FixedPoint.toHundredths(2.675));
+    }
+
+    @Test
+    public void testNoNegativeZero() {
+        assertEquals(0f, FixedPoint.round(-0.001), 0f);
+        assertEquals(Float.floatToIntBits(0f), Float.floatToIntBits(FixedPoint.round(-0.0)));
+    }
+
+    @Test
+    public void testSameRoundingAsBigDecimal() {
+        double[] values = {0, 0.005, 0.015, 0.994999, 1.005, 2.675, 100.125, 612.0049999, 41943.035, 41943.045, 123456.785, 1e12 + 0.005};
+        for (double d : values) {
+            assertSameRounding(d);
+            assertSameRounding(-d);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            assertSameRounding((float) (random.nextDouble() * 2000 - 1000));
+            assertSameRounding((random.nextInt(200000) - 100000 + 0.5) / 100);
+        }
+    }
+
+    @Test
+    public void testCompare() {
+        assertEquals(0, FixedPoint.compare(1.004, 1.0));
+        assertEquals(1, FixedPoint.compare(1.005, 1.0));
+        assertEquals(-1, FixedPoint.compare(-1.005, -1.0));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNaN() {
+        FixedPoint.round(Double.NaN);
+    }
+
+}
@@ -0,0 +1,68 @@
+package technology.tabula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestGlyphStore {
+
+    private static GlyphStore randomGlyphs(Random random, int count, List<TextElement> elements) {
+        GlyphStore glyphs = new GlyphStore();
+        String[] texts = {"a", "b", " ", "\u05d0", "fi", "\ud835\udc00"};
+        for (int i = 0; i < count; i++) {
+            // coarse coordinates, so that many glyphs overlap or tie
+            float top = FixedPoint.round(random.nextInt(40) * 2.5);
+            float left = FixedPoint.round(random.nextInt(40) * 3.25);
+            float width = FixedPoint.round(1 + random.nextInt(8) * 0.75);
+            float height = FixedPoint.round(random.nextInt(6) * 0.3);
+            String text = texts[random.nextInt(texts.length)];
+            glyphs.add(top, left, width, height, null, 10f, text, 2.5f, 0f);
+            elements.add(new TextElement(top, left, width, height, null, 10f, text, 2.5f, 0f));
+        }
+        return glyphs;
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSameOrderAsSortingElements() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<TextElement> elements = new ArrayList<>();
+            GlyphStore glyphs = randomGlyphs(random, random.nextInt(300), elements);
+
+            assertEquals(elements, glyphs.asList());
+
+            glyphs.sortInReadingOrder();
+            Utils.sort(elements, Rectangle.ILL_DEFINED_ORDER);
+            assertEquals(elements, glyphs.asList());
+            if (!elements.isEmpty()) {
+                assertEquals(Utils.bounds(elements), glyphs.getBounds());
+            }
+        }
+    }
+
+    @Test
+    public void testElementsAreCreatedOnce() {
+        GlyphStore glyphs = randomGlyphs(new Random(7), 20, new ArrayList<TextElement>());
+        glyphs.sortInReadingOrder();
+
+        List<TextElement> list = glyphs.asList();
+        for (int i = 0; i < list.size(); i++) {
+            assertSame(list.get(i), glyphs.asList().get(i));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        GlyphStore glyphs = new GlyphStore();
+        glyphs.sortInReadingOrder();
+        assertEquals(0, glyphs.asList().size());
+        assertEquals(new Rectangle(), glyphs.getBounds());
+    }
+
+}
@@ -0,0 +1,164 @@
+package technology.tabula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.ParseException;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.gson.JsonParser;
+
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.metrics.Metrics;
+import technology.tabula.metrics.MetricsSink;
+import technology.tabula.writers.CSVWriter;
+
+public class TestMetrics {
+
+    private static final String TWO_TABLES = "src/test/resources/technology/tabula/twotables.pdf";
+
+    private static class RecordingSink implements MetricsSink {
+        final Set<Metrics.Stage> stages = EnumSet.noneOf(Metrics.Stage.class);
+        final Map<Metrics.Counter, Long> counts = new EnumMap<>(Metrics.Counter.class);
+
+        @Override
+        public synchronized void time(Metrics.Stage stage, int pageNumber, long nanos) {
+            assertTrue(nanos >= 0);
+            stages.add(stage);
+        }
+
+        @Override
+        public synchronized void count(Metrics.Counter counter, int pageNumber, long value) {
+            assertEquals(1, pageNumber);
+            counts.merge(counter, value, Long::sum);
+        }
+    }
+
+    @After
+    public void removeSink() {
+        Metrics.setSink(null);
+    }
+
+    @Test
+    public void testDisabledTimersAreShared() {
+        assertFalse(Metrics.isEnabled());
+        assertSame(Metrics.time(Metrics.Stage.PARSE, 1), Metrics.time(Metrics.Stage.WRITE));
+    }
+
+    @Test
+    public void testSinkReceivesStagesAndCounters() throws IOException {
+        RecordingSink sink = new RecordingSink();
+        Metrics.setSink(sink);
+
+        PageArea page = UtilsForTesting.getPage(TWO_TABLES, 1);
+        List<Table> tables = new SpreadsheetExtractionAlgorithm().extract(page);
+        new CSVWriter().write(new StringBuilder(), tables);
+
+        assertEquals(EnumSet.of(Metrics.Stage.PARSE, Metrics.Stage.RULING_CLEANUP, Metrics.Stage.MERGE_WORDS,
+                Metrics.Stage.SPREADSHEET_EXTRACTION, Metrics.Stage.WRITE), sink.stages);
+        assertEquals(page.getText().size(), (long) sink.counts.get(Metrics.Counter.GLYPHS));
+        assertEquals(page.getUnprocessedRulings().size(), (long) sink.counts.get(Metrics.Counter.RULINGS));
+        assertTrue(sink.counts.get(Metrics.Counter.CELLS) > 0);
+        assertEquals(2L, (long) sink.counts.get(Metrics.Counter.TABLES));
+    }
+
+    @Test
+    public void testTrialExtractionsAreNotCounted() throws IOException {
+        PageArea page = UtilsForTesting.getPage(TWO_TABLES, 1).snapshot();
+        RecordingSink sink = new RecordingSink();
+        Metrics.setSink(sink);
+
+        new SpreadsheetExtractionAlgorithm().isTabular(page);
+
+        assertEquals(EnumSet.of(Metrics.Stage.METHOD_DECISION), sink.stages);
+        assertTrue(sink.counts.isEmpty());
+    }
+
+    @Test
+    public void testTrialExtractionsOfLargePagesAreNotCounted() throws Exception {
+        // more than 256 cells, so their text is merged into words on the pool's threads
+        PageArea page = UtilsForTesting.getPage("src/test/resources/technology/tabula/schools.pdf", 1).snapshot();
+        RecordingSink sink = new RecordingSink();
+        Metrics.setSink(sink);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.submit(() -> new SpreadsheetExtractionAlgorithm().isTabular(page)).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(EnumSet.of(Metrics.Stage.METHOD_DECISION), sink.stages);
+        assertTrue(sink.counts.isEmpty());
+    }
+
+    @Test
+    public void testAutoModeCountsTablesWritten() throws ParseException {
+        RecordingSink sink = new RecordingSink();
+        Metrics.setSink(sink);
+
+        String[] args = {TWO_TABLES, "-p", "1", "-f", "JSON"};
+        CommandLine line = new DefaultParser().parse(CommandLineApp.buildOptions(), args);
+        StringBuilder json = new StringBuilder();
+        new CommandLineApp(json, line).extractTables(line);
+
+        assertTrue(sink.stages.contains(Metrics.Stage.METHOD_DECISION));
+        assertEquals(new JsonParser().parse(json.toString()).getAsJsonArray().size(),
+                (long) sink.counts.get(Metrics.Counter.TABLES));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        Path file = Files.createTempFile("tabula", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("technology.tabula.Stage");
+                recording.enable("technology.tabula.PageCount");
+                recording.start();
+                assertTrue(Metrics.isEnabled());
+
+                new SpreadsheetExtractionAlgorithm().extract(UtilsForTesting.getPage(TWO_TABLES, 1));
+
+                recording.stop();
+                recording.dump(file);
+            }
+            assertFalse(Metrics.isEnabled());
+
+            Set<String> stages = new HashSet<>();
+            long tables = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("technology.tabula.Stage")) {
+                    stages.add(event.getString("stage"));
+                } else if (event.getEventType().getName().equals("technology.tabula.PageCount") && event.getString("counter").equals("TABLES")) {
+                    tables += event.getLong("value");
+                }
+            }
+            assertTrue(stages.contains("PARSE"));
+            assertTrue(stages.contains("SPREADSHEET_EXTRACTION"));
+            assertEquals(2, tables);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package technology.tabula;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestParallelTextExtractor {
+
+    private static final File PDF = new File("src/test/resources/technology/tabula/us-020.pdf");
+
+    @Test
+    public void testPagesComeBackInOrder() throws IOException {
+        List<PageArea> expected = new ArrayList<>();
+        try (TextExtractor extractor = new TextExtractor(PDDocument.load(PDF))) {
+            PageIterator pages = extractor.extract();
+            while (pages.hasNext()) {
+                expected.add(pages.next());
+            }
+        }
+
+        try (ParallelTextExtractor extractor = new ParallelTextExtractor(() -> PDDocument.load(PDF), 4)) {
+            assertEquals(expected.size(), extractor.getNumberOfPages());
+
+            Iterator<PageArea> pages = extractor.extract();
+            for (PageArea expectedPage : expected) {
+                PageArea page = pages.next();
+                assertEquals(expectedPage.getPageNumber(), page.getPageNumber());
+                // fonts belong to different document handles, compare glyph text and positions only
+                assertEquals(expectedPage.getText().toString(), page.getText().toString());
+                assertEquals(expectedPage.getRulings(), page.getRulings());
+            }
+            assertFalse(pages.hasNext());
+        }
+    }
+
+    @Test
+    public void testProcessorRunsForRequestedPages() throws IOException {
+        try (ParallelTextExtractor extractor = new ParallelTextExtractor(() -> PDDocument.load(PDF), 2)) {
+            Iterator<Integer> pageNumbers = extractor.extract(Arrays.asList(5, 1, 3), PageArea::getPageNumber);
+            List<Integer> seen = new ArrayList<>();
+            while (pageNumbers.hasNext()) {
+                seen.add(pageNumbers.next());
+            }
+            assertEquals(Arrays.asList(5, 1, 3), seen);
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testUnreadableDocumentIsReported() throws IOException {
+        File encrypted = new File("src/test/resources/technology/tabula/encrypted.pdf");
+        try (ParallelTextExtractor extractor = new ParallelTextExtractor(() -> PDDocument.load(encrypted, "wrongpassword"), 2)) {
+            extractor.extract(Arrays.asList(1)).next();
+        }
+    }
+
+}
@@ -2,6 +2,11 @@ package technology.tabula;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Test;
 
 public class TestRectangleSpatialIndex {
@@ -18,4 +23,51 @@ public class TestRectangleSpatialIndex {
 
 	}
 
+	@Test
+	public void testContainsAnswersInAddedOrder() {
+		Random random = new Random(3);
+		RectangleSpatialIndex<Rectangle> rSpatialIndex = new RectangleSpatialIndex<>();
+		List<Rectangle> rectangles = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Rectangle r = new Rectangle(random.nextInt(500), random.nextInt(400), random.nextInt(20), random.nextInt(10));
+			rectangles.add(r);
+			rSpatialIndex.add(r);
+		}
+
+		List<Rectangle> areas = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			areas.add(new Rectangle(random.nextInt(500), random.nextInt(400), random.nextInt(150), random.nextInt(150)));
+		}
+		// nested, repeated and empty areas
+		areas.add(new Rectangle(0, 0, 420, 510));
+		areas.add(areas.get(0));
+		areas.add(new Rectangle(100, 100, 0, 50));
+		List<List<Rectangle>> answers = rSpatialIndex.contains(areas);
+
+		for (int i = 0; i < areas.size(); i++) {
+			List<Rectangle> expected = new ArrayList<>();
+			for (Rectangle r : rectangles) {
+				if (areas.get(i).contains(r)) {
+					expected.add(r);
+				}
+			}
+			assertEquals(expected, rSpatialIndex.contains(areas.get(i)));
+			assertEquals(expected, answers.get(i));
+		}
+	}
+
+	@Test
+	public void testAddAfterQuery() {
+		RectangleSpatialIndex<Rectangle> rSpatialIndex = new RectangleSpatialIndex<>();
+		Rectangle a = new Rectangle(10, 10, 5, 5);
+		Rectangle b = new Rectangle(0, 0, 5, 5);
+		Rectangle area = new Rectangle(0, 0, 20, 20);
+
+		rSpatialIndex.add(a);
+		assertEquals(Arrays.asList(a), rSpatialIndex.contains(area));
+		rSpatialIndex.add(b);
+		assertEquals(Arrays.asList(a, b), rSpatialIndex.contains(area));
+		assertEquals(new Rectangle(0, 0, 15, 15), rSpatialIndex.getBounds());
+	}
+
 }
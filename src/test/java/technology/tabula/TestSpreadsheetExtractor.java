@@ -14,7 +14,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import technology.tabula.extractors.BasicExtractionAlgorithm;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
 import technology.tabula.writers.CSVWriter;
 import technology.tabula.writers.JSONWriter;
@@ -22,6 +26,7 @@ import technology.tabula.writers.JSONWriter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TestSpreadsheetExtractor {
 
@@ -156,6 +161,28 @@ public class TestSpreadsheetExtractor {
         assertFalse(cells.get(0).intersects(cells.get(1)));
     }
 
+    @Test
+    public void testFindCellsOnLargeGrid() {
+        List<Ruling> horizontals = new ArrayList<>();
+        List<Ruling> verticals = new ArrayList<>();
+        for (int i = 0; i <= 80; i++) {
+            horizontals.add(new Ruling(new Point2D.Float(0, i * 10f), new Point2D.Float(600, i * 10f)));
+        }
+        for (int i = 0; i <= 60; i++) {
+            verticals.add(new Ruling(new Point2D.Float(i * 10f, 0), new Point2D.Float(i * 10f, 800)));
+        }
+
+        List<Cell> cells = SpreadsheetExtractionAlgorithm.findCells(horizontals, verticals);
+        assertEquals(80 * 60, cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            Cell cell = cells.get(i);
+            assertEquals((i / 60) * 10f, cell.getTop(), 0f);
+            assertEquals((i % 60) * 10f, cell.getLeft(), 0f);
+            assertEquals(10f, cell.getWidth(), 0f);
+            assertEquals(10f, cell.getHeight(), 0f);
+        }
+    }
+
     @Test
     public void testFindSpreadsheetsFromCells() throws IOException {
 
@@ -261,6 +288,106 @@ public class TestSpreadsheetExtractor {
         pageArea.getPDDoc().close();
     }
 
+    @Test
+    public void testSnapshotHasTheRulingsOfThePage() throws IOException {
+        PageArea pageArea = UtilsForTesting.getPage("src/test/resources/technology/tabula/20.pdf", 1);
+        PageArea snapshot = pageArea.snapshot();
+
+        assertTrue(snapshot.isFrozen());
+        assertTrue(snapshot == snapshot.snapshot());
+        assertEquals(pageArea.getVerticalRulings(), snapshot.getVerticalRulings());
+        assertEquals(pageArea.getHorizontalRulings(), snapshot.getHorizontalRulings());
+        assertEquals(pageArea.getRulings(), snapshot.getRulings());
+        // not the same rulings, the page's are snapped in place
+        assertFalse(pageArea.getRulings().get(0) == snapshot.getRulings().get(0));
+
+        try {
+            snapshot.addRuling(new Ruling(0, 10f, 0, 100f));
+            fail("added a ruling to a snapshot");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(pageArea.getRulings(), snapshot.getRulings());
+        }
+        pageArea.getPDDoc().close();
+    }
+
+    @Test
+    public void testExtractFromSharedSnapshot() throws Exception {
+        PageArea pageArea = UtilsForTesting.getPage("src/test/resources/technology/tabula/us-017.pdf", 2);
+        String expectedLattice = toCsv(new SpreadsheetExtractionAlgorithm().extract(pageArea));
+        String expectedStream = toCsv(new BasicExtractionAlgorithm().extract(pageArea));
+
+        final PageArea snapshot = UtilsForTesting.getPage("src/test/resources/technology/tabula/us-017.pdf", 2).snapshot();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> lattice = new ArrayList<>();
+            List<Future<String>> stream = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lattice.add(executor.submit(() -> toCsv(new SpreadsheetExtractionAlgorithm().extract(snapshot))));
+                stream.add(executor.submit(() -> toCsv(new BasicExtractionAlgorithm().extract(snapshot))));
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expectedLattice, lattice.get(i).get());
+                assertEquals(expectedStream, stream.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        pageArea.getPDDoc().close();
+        snapshot.getPDDoc().close();
+    }
+
+    @Test
+    public void testSequentialExtractionMatchesParallel() throws IOException {
+        PageArea pageArea = UtilsForTesting.getPage("src/test/resources/technology/tabula/schools.pdf", 1);
+        SpreadsheetExtractionAlgorithm sequential = new SpreadsheetExtractionAlgorithm();
+        sequential.setParallel(false);
+        assertFalse(sequential.isParallel());
+        assertEquals(toCsv(new SpreadsheetExtractionAlgorithm().extract(pageArea)), toCsv(sequential.extract(pageArea)));
+        pageArea.getPDDoc().close();
+    }
+
+    @Test
+    public void testAreasOfSnapshot() throws IOException {
+        String path = "src/test/resources/technology/tabula/us-017.pdf";
+        PageArea snapshot = UtilsForTesting.getPage(path, 2).snapshot();
+        List<Ruling> snapshotRulings = new ArrayList<>(snapshot.getRulings());
+        float[][] areas = {{0f, 0f, 400f, 612f}, {100f, 50f, 300f, 500f}, {300f, 0f, 792f, 612f}};
+        for (float[] a : areas) {
+            PageArea expected = UtilsForTesting.getAreaFromPage(path, 2, a[0], a[1], a[2], a[3]);
+            PageArea area = snapshot.getArea(a[0], a[1], a[2], a[3]);
+
+            assertEquals(expected.getText().size(), area.getText().size());
+            assertEquals(expected.getRulings(), area.getRulings());
+            assertEquals(toCsv(new SpreadsheetExtractionAlgorithm().extract(expected)),
+                    toCsv(new SpreadsheetExtractionAlgorithm().extract(area)));
+            assertEquals(toCsv(new BasicExtractionAlgorithm().extract(expected)),
+                    toCsv(new BasicExtractionAlgorithm().extract(area)));
+            expected.getPDDoc().close();
+        }
+        // areas crop copies of the snapshot's rulings
+        assertEquals(snapshotRulings, snapshot.getRulings());
+        snapshot.getPDDoc().close();
+    }
+
+    @Test
+    public void testAreaIgnoresRulingsAddedToPageLater() throws IOException {
+        String path = "src/test/resources/technology/tabula/us-017.pdf";
+        PageArea expected = UtilsForTesting.getAreaFromPage(path, 2, 100f, 50f, 300f, 500f);
+        PageArea page = UtilsForTesting.getPage(path, 2);
+        PageArea area = page.getArea(100f, 50f, 300f, 500f);
+        page.addRuling(new Ruling(new Point2D.Float(200f, 60f), new Point2D.Float(200f, 490f)));
+
+        assertEquals(expected.getRulings(), area.getRulings());
+        expected.getPDDoc().close();
+        page.getPDDoc().close();
+    }
+
+    private static String toCsv(List<Table> tables) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        (new CSVWriter()).write(sb, tables);
+        return sb.toString();
+    }
+
     @Test
     public void testSpreadsheetWithNoBoundingFrameShouldBeSpreadsheet() throws IOException {
         PageArea pageArea = UtilsForTesting.getAreaFromPage("src/test/resources/technology/tabula/spreadsheet_no_bounding_frame.pdf", 1,
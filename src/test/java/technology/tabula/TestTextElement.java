@@ -200,8 +200,28 @@ public class TestTextElement {
 		Assert.assertEquals(2, words.size());
 		Assert.assertEquals(expectedWords, words);
 		
-	}	
-	
-	
+	}
+
+	@Test
+	public void mergeElementsSplitAtVerticalRulings() {
+		
+		List<TextElement> elements = new ArrayList<>();
+		elements.add(new TextElement(0f, 0f, 10f, 20f, PDType1Font.HELVETICA, 1f, "H", 1f, 6f));
+		elements.add(new TextElement(0f, 10f, 10f, 20f, PDType1Font.HELVETICA, 1f, "O", 1f, 6f));
+		elements.add(new TextElement(0f, 20f, 10f, 20f, PDType1Font.HELVETICA, 1f, "L", 1f, 6f));
+		elements.add(new TextElement(0f, 30f, 10f, 20f, PDType1Font.HELVETICA, 1f, "A", 1f, 6f));
+		
+		List<Ruling> rulings = new ArrayList<>();
+		// below the text, doesn't split it
+		rulings.add(new Ruling(100f, 25f, 0f, 50f));
+		rulings.add(new Ruling(0f, 15f, 0f, 20f));
+		
+		List<TextChunk> words = TextElement.mergeWords(elements, rulings);
+		
+		Assert.assertEquals(2, words.size());
+		Assert.assertEquals("HO", words.get(0).getText());
+		Assert.assertEquals("LA", words.get(1).getText());
+		
+	}
 
 }
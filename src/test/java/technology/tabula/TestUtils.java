@@ -4,13 +4,18 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.commons.cli.ParseException;
@@ -54,6 +59,111 @@ public class TestUtils {
         assertEquals(r, shapes.get(0));
     }
 
+    @Test
+    public void testSnapPointsEmptyList() {
+        Utils.snapPoints(new ArrayList<Ruling>(), 1f, 1f);
+    }
+
+    @Test
+    public void testSnapPointsLikeSnappingPointObjects() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<Line2D.Float> lines = new ArrayList<>();
+            List<Line2D.Float> expected = new ArrayList<>();
+            int count = 1 + random.nextInt(200);
+            for (int i = 0; i < count; i++) {
+                // coarse coordinates, so that many points tie
+                Line2D.Float line = new Line2D.Float(random.nextInt(400) / 4f, random.nextInt(400) / 4f,
+                        random.nextInt(400) / 4f, random.nextInt(400) / 4f);
+                lines.add(line);
+                expected.add(new Line2D.Float(line.getP1(), line.getP2()));
+            }
+            // the same line twice
+            lines.add(lines.get(0));
+            expected.add(expected.get(0));
+
+            Utils.snapPoints(lines, 2.5f, 1.5f);
+            snapPointObjects(expected, 2.5f, 1.5f);
+
+            for (int i = 0; i < lines.size(); i++) {
+                assertEquals(expected.get(i).getP1(), lines.get(i).getP1());
+                assertEquals(expected.get(i).getP2(), lines.get(i).getP2());
+            }
+        }
+    }
+
+    // snapPoints as it was written with Point2D objects
+    private static void snapPointObjects(List<Line2D.Float> rulings, float xThreshold, float yThreshold) {
+        Map<Line2D.Float, Point2D[]> linesToPoints = new HashMap<>();
+        List<Point2D> points = new ArrayList<>();
+        for (Line2D.Float r : rulings) {
+            Point2D p1 = r.getP1();
+            Point2D p2 = r.getP2();
+            linesToPoints.put(r, new Point2D[]{p1, p2});
+            points.add(p1);
+            points.add(p2);
+        }
+
+        Collections.sort(points, new Comparator<Point2D>() {
+            @Override
+            public int compare(Point2D arg0, Point2D arg1) {
+                return java.lang.Double.compare(arg0.getX(), arg1.getX());
+            }
+        });
+        List<List<Point2D>> groupedPoints = new ArrayList<>();
+        groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{points.get(0)})));
+        for (Point2D p : points.subList(1, points.size() - 1)) {
+            List<Point2D> last = groupedPoints.get(groupedPoints.size() - 1);
+            if (Math.abs(p.getX() - last.get(0).getX()) < xThreshold) {
+                last.add(p);
+            } else {
+                groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{p})));
+            }
+        }
+        for (List<Point2D> group : groupedPoints) {
+            float avgLoc = 0;
+            for (Point2D p : group) {
+                avgLoc += p.getX();
+            }
+            avgLoc /= group.size();
+            for (Point2D p : group) {
+                p.setLocation(avgLoc, p.getY());
+            }
+        }
+
+        Collections.sort(points, new Comparator<Point2D>() {
+            @Override
+            public int compare(Point2D arg0, Point2D arg1) {
+                return java.lang.Double.compare(arg0.getY(), arg1.getY());
+            }
+        });
+        groupedPoints = new ArrayList<>();
+        groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{points.get(0)})));
+        for (Point2D p : points.subList(1, points.size() - 1)) {
+            List<Point2D> last = groupedPoints.get(groupedPoints.size() - 1);
+            if (Math.abs(p.getY() - last.get(0).getY()) < yThreshold) {
+                last.add(p);
+            } else {
+                groupedPoints.add(new ArrayList<>(Arrays.asList(new Point2D[]{p})));
+            }
+        }
+        for (List<Point2D> group : groupedPoints) {
+            float avgLoc = 0;
+            for (Point2D p : group) {
+                avgLoc += p.getY();
+            }
+            avgLoc /= group.size();
+            for (Point2D p : group) {
+                p.setLocation(p.getX(), avgLoc);
+            }
+        }
+
+        for (Map.Entry<Line2D.Float, Point2D[]> ltp : linesToPoints.entrySet()) {
+            Point2D[] p = ltp.getValue();
+            ltp.getKey().setLine(p[0], p[1]);
+        }
+    }
+
     @Test
     public void testParsePagesOption() throws ParseException {
 
@@ -1,20 +1,27 @@
 package technology.tabula;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import technology.tabula.extractors.BasicExtractionAlgorithm;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+import technology.tabula.json.RectangularTextContainerSerializer;
+import technology.tabula.json.TableSerializer;
 import technology.tabula.writers.CSVWriter;
 import technology.tabula.writers.JSONWriter;
 import technology.tabula.writers.TSVWriter;
+import technology.tabula.writers.TableStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class TestWriters {
 
@@ -120,6 +127,75 @@ public class TestWriters {
         assertEquals(expectedCsv, s);
     }
 
+    @Test
+    public void testJSONStreamTwoTables() throws IOException {
+        String expectedJson = UtilsForTesting.loadJson("src/test/resources/technology/tabula/json/twotables.json");
+        List<Table> tables = this.getTables();
+        StringBuilder sb = new StringBuilder();
+        try (TableStream stream = (new JSONWriter()).open(sb)) {
+            stream.write(tables.get(0));
+            stream.write(tables.subList(1, tables.size()));
+            stream.finish();
+        }
+        assertEquals(expectedJson, sb.toString());
+
+        sb = new StringBuilder();
+        try (TableStream stream = (new JSONWriter()).open(sb)) {
+            stream.finish();
+        }
+        assertEquals("[]", sb.toString());
+    }
+
+    @Test
+    public void testJSONStreamClosedUnfinishedLeavesArrayOpen() throws IOException {
+        List<Table> tables = this.getTables();
+        StringBuilder sb = new StringBuilder();
+        try (TableStream stream = (new JSONWriter()).open(sb)) {
+            stream.write(tables.get(0));
+        }
+        assertTrue(sb.toString().startsWith("["));
+        assertFalse(sb.toString().endsWith("]"));
+    }
+
+    @Test
+    public void testCSVStreamTwoTables() throws IOException {
+        String expectedCsv = UtilsForTesting.loadCsv("src/test/resources/technology/tabula/csv/twotables.csv");
+        List<Table> tables = this.getTables();
+        StringBuilder sb = new StringBuilder();
+        try (TableStream stream = (new CSVWriter()).open(sb)) {
+            for (Table table : tables) {
+                stream.write(table);
+            }
+            stream.finish();
+        }
+        assertEquals(expectedCsv, sb.toString());
+    }
+
+    @Test
+    public void testJSONWriterMatchesSerializers() throws IOException {
+        Table table = new Table(new BasicExtractionAlgorithm());
+        table.add(new TextChunk(new TextElement(10.5f, 20.25f, 30.1f, 5f, null, 10f, "<a href='x'>&amp;</a>", 2f)), 0, 0);
+        table.add(new TextChunk(new TextElement(15.5f, 50.25f, 10.3f, 5f, null, 10f, "\"quoted\" \u00e9", 2f)), 1, 1);
+        List<Table> tables = Arrays.asList(table, this.getTable());
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Table.class, TableSerializer.INSTANCE)
+                .registerTypeAdapter(RectangularTextContainer.class, RectangularTextContainerSerializer.INSTANCE)
+                .registerTypeAdapter(TextChunk.class, RectangularTextContainerSerializer.INSTANCE)
+                .create();
+        JsonArray expected = new JsonArray();
+        for (Table t : tables)
+            expected.add(gson.toJsonTree(t, Table.class));
+
+        StringBuilder sb = new StringBuilder();
+        (new JSONWriter()).write(sb, tables);
+        assertEquals(gson.toJson(expected), sb.toString());
+
+        sb = new StringBuilder();
+        (new JSONWriter()).write(sb, table);
+        assertEquals(gson.toJson(table, Table.class), sb.toString());
+    }
+
     @Test
     public void testCSVMultilineRow() throws IOException {
         String expectedCsv = UtilsForTesting.loadCsv("src/test/resources/technology/tabula/csv/frx_2012_disclosure.csv");